@@ -4,31 +4,173 @@
  */
 package concurrentsortingproject; 
 
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.SplittableRandom;
 import java.util.Scanner;
-import java.util.Stack; 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
 
 /**
  * Proyecto Final Concurrencia
- * Implementa 12 tareas concurrentes (6 algoritmos x 2 estructuras de datos)
+ * Implementa una tarea concurrente por cada combinacin de algoritmo y estructura de datos
  * para comparar la eficiencia bajo una restriccin de tiempo.
  */
 public class ConcurrentSortingProject {
     
 
   
-    private static final Random RANDOM = new Random();
-
  //1.Introduccin y Objetivo del Proyecto   
     public enum DataStructure {
-        ARRAY, ARRAY_LIST
+        ARRAY, ARRAY_LIST, INT_LIST
+    }
+
+    // Lista creciente de int primitivos: misma interfaz tipo lista (add/get/set/swap)
+    // pero sin boxing, cada elemento vive directo en el arreglo interno.
+    public static class IntList {
+        private static final int DEFAULT_CAPACITY = 16;
+
+        private int[] elements;
+        private int size;
+
+        public IntList() {
+            this(DEFAULT_CAPACITY);
+        }
+
+        public IntList(int capacity) {
+            this.elements = new int[Math.max(capacity, 1)];
+        }
+
+        public IntList(int[] values) {
+            this.elements = Arrays.copyOf(values, Math.max(values.length, 1));
+            this.size = values.length;
+        }
+
+        public int size() { return size; }
+        public boolean isEmpty() { return size == 0; }
+
+        public void add(int value) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, elements.length + (elements.length >> 1) + 1);
+            }
+            elements[size++] = value;
+        }
+
+        public int get(int index) {
+            Objects.checkIndex(index, size);
+            return elements[index];
+        }
+
+        public void set(int index, int value) {
+            Objects.checkIndex(index, size);
+            elements[index] = value;
+        }
+
+        public void swap(int i, int j) {
+            Objects.checkIndex(i, size);
+            Objects.checkIndex(j, size);
+            int tmp = elements[i];
+            elements[i] = elements[j];
+            elements[j] = tmp;
+        }
+
+        public void clear() {
+            size = 0;
+        }
+
+        // reemplaza el contenido por una copia de values
+        public void setAll(int[] values) {
+            if (elements.length < values.length) {
+                elements = new int[values.length];
+            }
+            System.arraycopy(values, 0, elements, 0, values.length);
+            size = values.length;
+        }
+
+        // Arreglo interno para los kernels en bloque; solo [0, size()) es valido
+        public int[] elements() {
+            return elements;
+        }
+
+        // Ordenamiento en bloque sobre el arreglo interno (como ArrayList.sort)
+        public void sort() {
+            IntroSort.sort(elements, 0, size);
+        }
+
+        // Ordena el arreglo interno con merge sort paralelo
+        public void parallelSort() {
+            ParallelMergeSort.sort(elements, size);
+        }
+
+        public int[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
     }
 
  
@@ -37,8 +179,16 @@ public class ConcurrentSortingProject {
         SELECTION_SORT("Selection Sort (O(n))"),
         INSERTION_SORT("Insertion Sort (O(n))"),
         MERGE_SORT("Merge Sort (O(n log n))"),
-        QUICK_SORT("Quick Sort (O(n log n) - Iterativo)"), // Nombre actualizado
-        COUNTING_SORT("Counting Sort (O(n + k))");
+        PARALLEL_MERGE_SORT("Merge Sort Paralelo (ForkJoin)"),
+        QUICK_SORT("Quick Sort (Introsort iterativo)"), // Nombre actualizado
+        COUNTING_SORT("Counting Sort (O(n + k))"),
+        RADIX_SORT("Radix Sort (LSD 8 bits)"),
+        PARALLEL_RADIX_SORT("Radix Sort Paralelo (LSD 8 bits)"),
+        SIMD_QUICK_SORT("Quick Sort SIMD (Vector API)"),
+        SIMD_MERGE_SORT("Merge Sort SIMD (bitnico)"),
+        SAMPLE_SORT("Sample Sort Paralelo"),
+        AUTO("Auto (elige el kernel por muestreo)"),
+        EXTERNAL_MERGE_SORT("Merge Sort Externo (mmap, k vas)");
 
         private final String displayName;
 
@@ -67,9 +217,10 @@ public class ConcurrentSortingProject {
     }
 
     // contenemos los datos aqui
+    // Los datos no se exponen: las tareas solo leen a travs de copias o de una vista de solo lectura
     public static class DataCollection {
         public final String name;
-        public final int[] data; 
+        private final int[] data; 
 
         public DataCollection(String name, int[] data) {
             this.name = name;
@@ -81,432 +232,5888 @@ public class ConcurrentSortingProject {
              return Arrays.stream(data).boxed().collect(Collectors.toCollection(ArrayList::new));
         }
 
+        public IntList getIntListCopy() {
+            return new IntList(data);
+        }
+
       
         public int[] getArrayCopy() {
             return Arrays.copyOf(data, data.length);
         }
+
+        public int size() {
+            return data.length;
+        }
+
+        public int get(int index) {
+            return data[index];
+        }
+
+        public IntBuffer view() {
+            return IntBuffer.wrap(data).asReadOnlyBuffer();
+        }
+
+        // Copias sobre buffers reutilizables: no reservan memoria si el destino ya tiene el tamao
+        public int[] copyInto(int[] target) {
+            if (target == null || target.length != data.length) {
+                return getArrayCopy();
+            }
+            System.arraycopy(data, 0, target, 0, data.length);
+            return target;
+        }
+
+        public IntList copyInto(IntList target) {
+            if (target == null) {
+                return getIntListCopy();
+            }
+            target.setAll(data);
+            return target;
+        }
+
+        // ARRAY_LIST reutiliza la lista, pero cada set() sigue empaquetando un Integer
+        public List<Integer> copyInto(List<Integer> target) {
+            if (target == null || target.size() != data.length) {
+                return getArrayListCopy();
+            }
+            ListIterator<Integer> it = target.listIterator();
+            for (int value : data) {
+                it.next();
+                it.set(value);
+            }
+            return target;
+        }
     }
 
     //2. Generacin de Datos
+    // Coleccin de muchos arreglos chicos para el modo por lotes
+    public static class BatchCollection {
+        public final String name;
+        private final int[][] arrays;
+
+        public BatchCollection(String name, int[][] arrays) {
+            this.name = name;
+            this.arrays = arrays;
+        }
+
+        public int count() {
+            return arrays.length;
+        }
+
+        public long totalElements() {
+            long total = 0;
+            for (int[] a : arrays) total += a.length;
+            return total;
+        }
+
+        // copia todos los arreglos, reutilizando target si ya tiene la misma forma
+        public int[][] copyInto(int[][] target) {
+            if (target == null || target.length != arrays.length) {
+                target = new int[arrays.length][];
+            }
+            for (int i = 0; i < arrays.length; i++) {
+                if (target[i] == null || target[i].length != arrays[i].length) {
+                    target[i] = arrays[i].clone();
+                } else {
+                    System.arraycopy(arrays[i], 0, target[i], 0, arrays[i].length);
+                }
+            }
+            return target;
+        }
+    }
+
+    // Forma de los datos que produce un DataSpec
+    public enum Distribution {
+        UNIFORM("uniforme", "al azar"),
+        SORTED("ordenado", "ya ordenados"),
+        REVERSED("inverso", "en orden inverso"),
+        NEARLY_SORTED("casi", "casi ordenados"),
+        ORGAN_PIPE("organo", "en forma de tubo de rgano"),
+        ZIPF("zipf", "con sesgo Zipf");
+
+        private final String optionName;
+        private final String label;
+
+        Distribution(String optionName, String label) {
+            this.optionName = optionName;
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public static Distribution fromOption(String value) {
+            for (Distribution d : values()) {
+                if (d.optionName.equalsIgnoreCase(value) || d.name().equalsIgnoreCase(value)) return d;
+            }
+            throw new IllegalArgumentException("Distribucin desconocida: " + value
+                    + " (uniforme, ordenado, inverso, casi, organo, zipf)");
+        }
+    }
+
+    // Especificacin de una coleccin: distribucin, tamao y rango de valores [minValue, maxValue).
+    // parameter es la fraccin de intercambios en NEARLY_SORTED y el exponente en ZIPF.
+    public static class DataSpec {
+        public static final double DEFAULT_SWAP_FRACTION = 0.01;
+        public static final double DEFAULT_ZIPF_EXPONENT = 1.1;
+
+        public final Distribution distribution;
+        public final int size;
+        public final int minValue;
+        public final int maxValue;
+        public final double parameter;
+        private final String name;
+
+        public DataSpec(Distribution distribution, int size, int minValue, int maxValue, double parameter, String name) {
+            if (size < 0) throw new IllegalArgumentException("Tamao negativo: " + size);
+            if (maxValue <= minValue) throw new IllegalArgumentException("Rango vaco: " + minValue + "-" + maxValue);
+            this.distribution = distribution;
+            this.size = size;
+            this.minValue = minValue;
+            this.maxValue = maxValue;
+            this.parameter = parameter;
+            this.name = name != null ? name
+                    : String.format(Locale.US, "%,d elementos %s", size, distribution.getLabel());
+        }
+
+        public DataSpec(Distribution distribution, int size, int maxValue) {
+            this(distribution, size, 0, maxValue, defaultParameter(distribution), null);
+        }
+
+        private static double defaultParameter(Distribution distribution) {
+            switch (distribution) {
+                case NEARLY_SORTED: return DEFAULT_SWAP_FRACTION;
+                case ZIPF: return DEFAULT_ZIPF_EXPONENT;
+                default: return 0;
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // Las cuatro colecciones originales del proyecto
+        public static List<DataSpec> defaults() {
+            return Arrays.asList(
+                    new DataSpec(Distribution.UNIFORM, 100, 0, 10000, 0, "100 elementos al azar"),
+                    new DataSpec(Distribution.UNIFORM, 50000, 0, 500000, 0, "50,000 elementos al azar"),
+                    new DataSpec(Distribution.UNIFORM, 100000, 0, 1000000, 0, "100,000 elementos al azar"),
+                    new DataSpec(Distribution.UNIFORM, 100000, 1, 6, 0, "100,000 elementos restringidos (1-5)"));
+        }
+
+        // Formato: distribucion:tamao[:rango[:parametro]], varias separadas por coma.
+        // El tamao acepta sufijos k y m, p. ej. "casi:10m:1000000:0.001,zipf:500k".
+        public static List<DataSpec> parseList(String text) {
+            List<DataSpec> specs = new ArrayList<>();
+            for (String part : text.split(",")) {
+                if (!part.isBlank()) specs.add(parse(part.trim()));
+            }
+            if (specs.isEmpty()) throw new IllegalArgumentException("No se especific ninguna coleccin");
+            return specs;
+        }
+
+        public static DataSpec parse(String text) {
+            String[] fields = text.split(":");
+            if (fields.length < 2 || fields.length > 4) {
+                throw new IllegalArgumentException("Coleccin invlida: " + text + " (distribucion:tamao[:rango[:parametro]])");
+            }
+            try {
+                Distribution distribution = Distribution.fromOption(fields[0]);
+                int size = parseSize(fields[1]);
+                int range = fields.length > 2 ? parseSize(fields[2]) : Math.max(size, 1);
+                double parameter = fields.length > 3 ? Double.parseDouble(fields[3]) : defaultParameter(distribution);
+                return new DataSpec(distribution, size, 0, range, parameter, null);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Coleccin invlida: " + text);
+            }
+        }
+
+        private static int parseSize(String text) {
+            String t = text.trim().toLowerCase(Locale.ROOT);
+            long multiplier = 1;
+            if (t.endsWith("k")) { multiplier = 1_000; t = t.substring(0, t.length() - 1); }
+            else if (t.endsWith("m")) { multiplier = 1_000_000; t = t.substring(0, t.length() - 1); }
+            long value = Long.parseLong(t) * multiplier;
+            if (value > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Tamao demasiado grande: " + text);
+            return (int) value;
+        }
+
+        @Override
+        public String toString() {
+            return distribution + ":" + size + ":" + minValue + ":" + maxValue + ":" + parameter;
+        }
+    }
+
+    // Genera colecciones a partir de un DataSpec. Cada coleccin usa un flujo de SplittableRandom
+    // derivado de la semilla y del spec, y los tamaos grandes se llenan por bloques en paralelo
+    // (cada bloque con su propio flujo), as la misma semilla siempre produce los mismos datos.
     public static class DataGenerator {
-        private final Random random = new Random();
+        public static final long DEFAULT_SEED = 20240501L;
+        private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+        private static final int CHUNK = 1 << 20;
+
+        private final long seed;
+
+        public DataGenerator() {
+            this(DEFAULT_SEED);
+        }
+
+        public DataGenerator(long seed) {
+            this.seed = seed;
+        }
+
+        public long getSeed() { return seed; }
 
         public DataCollection generate100Random() {
-            int[] data = new int[100];
-            for (int i = 0; i < data.length; i++) {
-                data[i] = random.nextInt(10000); 
-            }
-            return new DataCollection("100 elementos al azar", data);
+            return generate(DataSpec.defaults().get(0));
         }
 
         public DataCollection generate50kRandom() {
-            int[] data = new int[50000];
-            for (int i = 0; i < data.length; i++) {
-                data[i] = random.nextInt(500000); 
-            }
-            return new DataCollection("50,000 elementos al azar", data);
+            return generate(DataSpec.defaults().get(1));
         }
 
         public DataCollection generate100kRandom() {
-            int[] data = new int[100000];
-            for (int i = 0; i < data.length; i++) {
-                data[i] = random.nextInt(1000000); 
-            }
-            return new DataCollection("100,000 elementos al azar", data);
+            return generate(DataSpec.defaults().get(2));
         }
 
         public DataCollection generate100kRestricted() {
-            int[] data = new int[100000];
-            for (int i = 0; i < data.length; i++) {
-                data[i] = random.nextInt(5) + 1; // Nmeros entre 1 y 5
-            }
-            return new DataCollection("100,000 elementos restringidos (1-5)", data);
+            return generate(DataSpec.defaults().get(3)); // Nmeros entre 1 y 5
         }
 
         public List<DataCollection> getAllCollections() {
+            return generateAll(DataSpec.defaults());
+        }
+
+        // Genera todas las colecciones en paralelo
+        public List<DataCollection> generateAll(List<DataSpec> specs) {
+            return specs.parallelStream()
+                    .map(this::generate)
+                    .collect(Collectors.toList());
+        }
+
+        public DataCollection generate(DataSpec spec) {
+            int n = spec.size;
+            int[] data = new int[n];
+            long streamSeed = seed + GOLDEN_GAMMA * spec.toString().hashCode();
+            long range = (long) spec.maxValue - spec.minValue;
+            int min = spec.minValue;
+
+            switch (spec.distribution) {
+                case UNIFORM:
+                    fill(n, streamSeed, (from, to, random) -> {
+                        for (int i = from; i < to; i++) data[i] = (int) (min + random.nextLong(range));
+                    });
+                    break;
+                case SORTED:
+                case NEARLY_SORTED:
+                    fill(n, streamSeed, (from, to, random) -> {
+                        for (int i = from; i < to; i++) data[i] = (int) (min + (long) i * range / n);
+                    });
+                    if (spec.distribution == Distribution.NEARLY_SORTED) {
+                        swapRandomPairs(data, (long) (n * spec.parameter), new SplittableRandom(streamSeed));
+                    }
+                    break;
+                case REVERSED:
+                    fill(n, streamSeed, (from, to, random) -> {
+                        for (int i = from; i < to; i++) data[i] = (int) (min + (long) (n - 1 - i) * range / n);
+                    });
+                    break;
+                case ORGAN_PIPE: {
+                    // sube hasta la mitad y baja de regreso
+                    long half = Math.max((n + 1) / 2, 1);
+                    fill(n, streamSeed, (from, to, random) -> {
+                        for (int i = from; i < to; i++) data[i] = (int) (min + Math.min(i, n - 1 - i) * range / half);
+                    });
+                    break;
+                }
+                case ZIPF: {
+                    double exponent = spec.parameter;
+                    fill(n, streamSeed, (from, to, random) -> {
+                        for (int i = from; i < to; i++) data[i] = (int) (min + zipfRank(random, range, exponent) - 1);
+                    });
+                    break;
+                }
+            }
+            return new DataCollection(spec.getName(), data);
+        }
+
+        // count arreglos de length valores al azar en [0, maxValue)
+        public BatchCollection generateBatch(int count, int length, int maxValue) {
+            SplittableRandom random = new SplittableRandom(seed + GOLDEN_GAMMA * ((long) count * 31 + length));
+            int[][] arrays = new int[count][];
+            for (int i = 0; i < count; i++) {
+                arrays[i] = random.ints(length, 0, maxValue).toArray();
+            }
+            return new BatchCollection(String.format(Locale.US, "%,d arreglos de %d elementos", count, length), arrays);
+        }
+
+        private interface ChunkFiller {
+            void fill(int from, int to, SplittableRandom random);
+        }
+
+        private static void fill(int n, long streamSeed, ChunkFiller filler) {
+            int chunks = (int) (((long) n + CHUNK - 1) / CHUNK);
+            IntStream blocks = IntStream.range(0, chunks);
+            if (chunks > 1) blocks = blocks.parallel();
+            blocks.forEach(c -> filler.fill(c * CHUNK, (int) Math.min(n, (long) (c + 1) * CHUNK),
+                                            new SplittableRandom(streamSeed + GOLDEN_GAMMA * (c + 1))));
+        }
+
+        private static void swapRandomPairs(int[] data, long swaps, SplittableRandom random) {
+            if (data.length < 2) return;
+            for (long s = 0; s < swaps; s++) {
+                int i = random.nextInt(data.length);
+                int j = random.nextInt(data.length);
+                int tmp = data[i];
+                data[i] = data[j];
+                data[j] = tmp;
+            }
+        }
+
+        // Rango en [1, k] con probabilidad ~ 1/rango^s, por inversin de la aproximacin continua
+        private static long zipfRank(SplittableRandom random, long k, double s) {
+            double u = random.nextDouble();
+            double x;
+            if (Math.abs(s - 1.0) < 1e-9) {
+                x = Math.pow(k, u);
+            } else {
+                double oneMinusS = 1.0 - s;
+                x = Math.pow((Math.pow(k, oneMinusS) - 1.0) * u + 1.0, 1.0 / oneMinusS);
+            }
+            return Math.max(1, Math.min(k, (long) x));
+        }
+    }
+
+    // Registro de datos compartido: cada coleccin se genera una sola vez y todas las tareas
+    // copian de la misma fuente de solo lectura en lugar de regenerarla. Tambin puede salir de un
+    // directorio de instantneas (DatasetSnapshot) en lugar del generador.
+    public static class DatasetRegistry {
+        private final List<DataCollection> collections;
+        private final List<String> distributionTags;
+        private final long seed;
+        private final long generationNanos;
+        // por coleccin: lo que tard en generarse (al cargar, lo anotado en la instantnea)
+        private final long[] collectionGenerationNanos;
+        // solo si sali de instantneas: mapear + leer el encabezado, y la copia a int[]
+        private final long[] mapNanos;
+        private final long[] copyNanos;
+
+        public DatasetRegistry(long seed) {
+            this(seed, DataSpec.defaults());
+        }
+
+        public DatasetRegistry(long seed, List<DataSpec> specs) {
+            this.seed = seed;
+            DataGenerator generator = new DataGenerator(seed);
+            long[] nanos = new long[specs.size()];
+            long start = System.nanoTime();
+            // igual que generateAll, pero tomando el tiempo de cada coleccin
+            this.collections = Collections.unmodifiableList(IntStream.range(0, specs.size()).parallel()
+                    .mapToObj(i -> {
+                        long collectionStart = System.nanoTime();
+                        DataCollection collection = generator.generate(specs.get(i));
+                        nanos[i] = System.nanoTime() - collectionStart;
+                        return collection;
+                    })
+                    .collect(Collectors.toList()));
+            this.generationNanos = System.nanoTime() - start;
+            this.collectionGenerationNanos = nanos;
+            this.distributionTags = specs.stream().map(DataSpec::toString).collect(Collectors.toList());
+            this.mapNanos = null;
+            this.copyNanos = null;
+        }
+
+        private DatasetRegistry(List<DatasetSnapshot> snapshots, long[] mapNanos, long[] copyNanos, long totalNanos) {
             List<DataCollection> collections = new ArrayList<>();
-            collections.add(generate100Random());
-            collections.add(generate50kRandom());
-            collections.add(generate100kRandom());
-            collections.add(generate100kRestricted());
-            return collections;
+            long[] generation = new long[snapshots.size()];
+            long start = System.nanoTime();
+            for (int i = 0; i < snapshots.size(); i++) {
+                long copyStart = System.nanoTime();
+                collections.add(snapshots.get(i).toCollection());
+                copyNanos[i] = System.nanoTime() - copyStart;
+                generation[i] = snapshots.get(i).generationNanos;
+            }
+            this.collections = Collections.unmodifiableList(collections);
+            this.distributionTags = snapshots.stream().map(snapshot -> snapshot.distributionTag).collect(Collectors.toList());
+            this.seed = snapshots.isEmpty() ? DataGenerator.DEFAULT_SEED : snapshots.get(0).seed;
+            this.generationNanos = totalNanos + System.nanoTime() - start;
+            this.collectionGenerationNanos = generation;
+            this.mapNanos = mapNanos;
+            this.copyNanos = copyNanos;
         }
+
+        // Carga todas las instantneas de dir, en el orden de sus nombres de archivo
+        public static DatasetRegistry fromSnapshots(Path dir) throws IOException {
+            List<Path> files = DatasetSnapshot.list(dir);
+            if (files.isEmpty()) throw new IOException("No hay instantneas (*" + DatasetSnapshot.EXTENSION + ") en " + dir);
+            List<DatasetSnapshot> snapshots = new ArrayList<>();
+            long[] mapNanos = new long[files.size()];
+            long start = System.nanoTime();
+            for (int i = 0; i < files.size(); i++) {
+                long mapStart = System.nanoTime();
+                snapshots.add(DatasetSnapshot.load(files.get(i)));
+                mapNanos[i] = System.nanoTime() - mapStart;
+            }
+            return new DatasetRegistry(snapshots, mapNanos, new long[files.size()], System.nanoTime() - start);
+        }
+
+        // Escribe una instantnea por coleccin en dir (lo crea si hace falta); regresa los archivos
+        public List<Path> saveSnapshots(Path dir) throws IOException {
+            Files.createDirectories(dir);
+            List<Path> files = new ArrayList<>();
+            for (int i = 0; i < collections.size(); i++) {
+                Path file = dir.resolve(DatasetSnapshot.fileName(i, collections.get(i).name));
+                DatasetSnapshot.save(file, collections.get(i), distributionTags.get(i), seed, collectionGenerationNanos[i]);
+                files.add(file);
+            }
+            return files;
+        }
+
+        public List<DataCollection> getCollections() { return collections; }
+        public int size() { return collections.size(); }
+        public long getSeed() { return seed; }
+        // tiempo total para tener los datos listos: generarlos, o cargarlos si salieron de instantneas
+        public long getGenerationNanos() { return generationNanos; }
+        public boolean isFromSnapshots() { return mapNanos != null; }
+        public String getDistributionTag(int index) { return distributionTags.get(index); }
+        public long getCollectionGenerationNanos(int index) { return collectionGenerationNanos[index]; }
+        public long getMapNanos(int index) { return mapNanos == null ? 0 : mapNanos[index]; }
+        public long getCopyNanos(int index) { return copyNanos == null ? 0 : copyNanos[index]; }
     }
-//AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA
-    //4. Clase SortTask y ejecucin de hilos
-    public static class SortTask implements Runnable {
-        private final SortType sortType;
-        private final long startTimeMillis;
-        private final long durationMillis;
-        private final DataGenerator generator;
 
-      
-        private volatile long sortedCollectionsCount = 0;
-        private volatile long totalExecutionTimeMillis = 0;
+    // Instantnea binaria de una DataCollection: encabezado y luego los valores como int
+    // little-endian crudos, as se carga con un map() en lugar de regenerarla y la misma corrida se
+    // reproduce en otra mquina. Todo en little-endian:
+    //   MAGIC, versin, bytes de encabezado, tamao, mnimo, mximo (int), semilla, nanos de
+    //   generacin (long), nombre y etiqueta de distribucin (short de longitud + UTF-8),
+    //   relleno hasta mltiplo de 8 y los datos.
+    // La etiqueta es DataSpec.toString() (distribucin:tamao:mn:mx:parmetro).
+    public static final class DatasetSnapshot {
+        public static final String EXTENSION = ".csps";
+        private static final int MAGIC = 0x53505343; // "CSPS" en disco
+        private static final int VERSION = 1;
+        private static final int FIXED_HEADER_BYTES = 6 * Integer.BYTES + 2 * Long.BYTES;
+        private static final int WRITE_BUFFER_BYTES = 1 << 20;
 
-        public SortTask(SortType sortType, long startTimeMillis, long durationMillis, DataGenerator generator) {
-            this.sortType = sortType;
-            this.startTimeMillis = startTimeMillis;
-            this.durationMillis = durationMillis;
-            this.generator = generator;
+        public final String name;
+        public final String distributionTag;
+        public final int size;
+        public final int min;
+        public final int max;
+        public final long seed;
+        public final long generationNanos;
+        private final IntBuffer data;
+
+        private DatasetSnapshot(String name, String distributionTag, int size, int min, int max, long seed,
+                                long generationNanos, IntBuffer data) {
+            this.name = name;
+            this.distributionTag = distributionTag;
+            this.size = size;
+            this.min = min;
+            this.max = max;
+            this.seed = seed;
+            this.generationNanos = generationNanos;
+            this.data = data;
+        }
+
+        // Vista de solo lectura sobre el archivo mapeado, sin copiar
+        public IntBuffer view() {
+            return data.duplicate();
+        }
+
+        // Copia en bloque a un int[] del heap, que es lo que ordenan los kernels
+        public DataCollection toCollection() {
+            int[] values = new int[size];
+            data.duplicate().get(values);
+            return new DataCollection(name, values);
+        }
+
+        // (3, "100,000 elementos en forma de tubo de rgano") -> "03-100-000-elementos-en-forma-de-tubo-de-organo.csps"
+        public static String fileName(int index, String name) {
+            String slug = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "")
+                    .toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+            return String.format("%02d-%s%s", index, slug, EXTENSION);
+        }
+
+        // instantneas de dir ordenadas por nombre de archivo
+        public static List<Path> list(Path dir) throws IOException {
+            try (Stream<Path> files = Files.list(dir)) {
+                return files.filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+                            .sorted()
+                            .collect(Collectors.toList());
+            }
+        }
+
+        public static void save(Path file, DataCollection collection, String distributionTag, long seed,
+                                long generationNanos) throws IOException {
+            int n = collection.size();
+            int min = 0, max = 0;
+            IntBuffer values = collection.view();
+            if (n > 0) {
+                min = max = values.get(0);
+                for (int i = 1; i < n; i++) {
+                    int v = values.get(i);
+                    if (v < min) min = v; else if (v > max) max = v;
+                }
+            }
+            byte[] name = collection.name.getBytes(StandardCharsets.UTF_8);
+            byte[] tag = distributionTag.getBytes(StandardCharsets.UTF_8);
+            if (name.length > Short.MAX_VALUE || tag.length > Short.MAX_VALUE) {
+                throw new IOException("Nombre o etiqueta demasiado largos para la instantnea: " + collection.name);
+            }
+            int headerBytes = (FIXED_HEADER_BYTES + 2 * Short.BYTES + name.length + tag.length + 7) & ~7;
+            if ((long) headerBytes + (long) n * Integer.BYTES > Integer.MAX_VALUE) {
+                throw new IOException("La coleccin no cabe en un solo map(): " + collection.name);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(WRITE_BUFFER_BYTES, headerBytes)).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(headerBytes).putInt(n).putInt(min).putInt(max)
+                  .putLong(seed).putLong(generationNanos)
+                  .putShort((short) name.length).put(name)
+                  .putShort((short) tag.length).put(tag);
+            while (buffer.position() < headerBytes) buffer.put((byte) 0);
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                values.rewind();
+                do {
+                    int count = Math.min(values.remaining(), buffer.remaining() / Integer.BYTES);
+                    buffer.asIntBuffer().put(values.slice().limit(count));
+                    values.position(values.position() + count);
+                    buffer.position(buffer.position() + count * Integer.BYTES);
+                    buffer.flip();
+                    while (buffer.hasRemaining()) channel.write(buffer);
+                    buffer.clear();
+                } while (values.hasRemaining());
+            }
+        }
+
+        // Mapea el archivo completo; los datos quedan como IntBuffer sobre el mapeo hasta toCollection()
+        public static DatasetSnapshot load(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long fileBytes = channel.size();
+                if (fileBytes < FIXED_HEADER_BYTES || fileBytes > Integer.MAX_VALUE) {
+                    throw new IOException("Tamao de instantnea invlido: " + file);
+                }
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileBytes);
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+                if (mapped.getInt() != MAGIC) throw new IOException("No es una instantnea de datos: " + file);
+                int version = mapped.getInt();
+                if (version != VERSION) throw new IOException("Versin de instantnea no soportada (" + version + "): " + file);
+                int headerBytes = mapped.getInt();
+                int size = mapped.getInt();
+                int min = mapped.getInt();
+                int max = mapped.getInt();
+                long seed = mapped.getLong();
+                long generationNanos = mapped.getLong();
+                String name = readString(mapped);
+                String tag = readString(mapped);
+                if (size < 0 || headerBytes < mapped.position() || (long) headerBytes + (long) size * Integer.BYTES != fileBytes) {
+                    throw new IOException("Instantnea truncada o corrupta: " + file);
+                }
+                mapped.position(headerBytes);
+                IntBuffer data = mapped.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                return new DatasetSnapshot(name, tag, size, min, max, seed, generationNanos, data);
+            }
+        }
+
+        private static String readString(ByteBuffer buffer) throws IOException {
+            int length = buffer.getShort();
+            if (length < 0 || length > buffer.remaining()) throw new IOException("Encabezado de instantnea invlido");
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    // Los kernels que trabajan sobre int[] se aplican a la lista desempaquetandola
+    // y escribiendo el resultado de regreso con set()
+    private static void sortViaArray(List<Integer> list, Consumer<int[]> kernel) {
+        int[] arr = toIntArray(list);
+        kernel.accept(arr);
+        copyBack(arr, list);
+    }
+
+    private static int[] toIntArray(List<Integer> list) {
+        int[] arr = new int[list.size()];
+        int i = 0;
+        for (int val : list) { arr[i++] = val; }
+        return arr;
+    }
+
+    private static void copyBack(int[] arr, List<Integer> list) {
+        ListIterator<Integer> it = list.listIterator();
+        for (int val : arr) {
+            it.next();
+            it.set(val);
+        }
+    }
+
+    // Histograma de latencias log-lineal (estilo HdrHistogram): 64 sub-cubetas por cada potencia
+    // de dos, error relativo menor a 1.6%. Todo el espacio se reserva al crearlo, as que
+    // record() no reserva memoria. Un solo hilo escribe; se lee cuando la tarea termin.
+    public static class LatencyHistogram {
+        private static final int SUB_BUCKET_BITS = 6;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final long[] counts = new long[BUCKETS];
+        private long totalCount;
+        private long totalNanos;
+        private long maxNanos;
+
+        private static int indexOf(long nanos) {
+            if (nanos < SUB_BUCKETS) return (int) Math.max(nanos, 0);
+            int shift = (63 - Long.numberOfLeadingZeros(nanos)) - SUB_BUCKET_BITS;
+            int top = (int) (nanos >>> shift);
+            return (shift + 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+        }
+
+        // mayor valor que cae en la cubeta
+        private static long highestValueAt(int index) {
+            if (index < SUB_BUCKETS) return index;
+            int shift = index / SUB_BUCKETS - 1;
+            long top = SUB_BUCKETS + index % SUB_BUCKETS;
+            return ((top + 1) << shift) - 1;
+        }
+
+        public void record(long nanos) {
+            counts[indexOf(nanos)]++;
+            totalCount++;
+            totalNanos += nanos;
+            if (nanos > maxNanos) maxNanos = nanos;
+        }
+
+        public long getCount() { return totalCount; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getMaxNanos() { return maxNanos; }
+
+        // percentil en [0, 100]; el resultado se acota al mximo registrado
+        public long getValueAtPercentile(double percentile) {
+            if (totalCount == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) return Math.min(highestValueAt(i), maxNanos);
+            }
+            return maxNanos;
+        }
+    }
+
+    // Token de cancelacin cooperativa con fecha lmite. Los kernels O(n) lo revisan cada
+    // quadraticCheckMask(n) + 1 iteraciones externas (unos CHECK_WORK pasos internos, y en cada
+    // iteracin si n es grande) y los O(n log n) en cada mezcla/particin de al menos
+    // MIN_CHECKED_RANGE elementos, as que el exceso sobre el lmite queda acotado.
+    public static class CancellationToken {
+        public static final int CHECK_MASK = 255;
+        public static final int MIN_CHECKED_RANGE = 4096;
+        // pasos internos aproximados entre revisiones de un kernel O(n)
+        public static final int CHECK_WORK = 1 << 20;
+
+        public static final CancellationToken NONE = new CancellationToken(Long.MAX_VALUE) {
+            @Override
+            public boolean isCancelled() { return false; }
+        };
+
+        private final long deadlineNanos;
+        private volatile boolean cancelled;
+
+        public CancellationToken(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        // convierte una hora de pared (currentTimeMillis) a una fecha lmite de nanoTime
+        public static CancellationToken withDeadlineMillis(long deadlineMillis) {
+            long remainingMillis = deadlineMillis - System.currentTimeMillis();
+            return new CancellationToken(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            if (cancelled) return true;
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                cancelled = true;
+            }
+            return cancelled;
+        }
+
+        // Mscara para (i & mask) == 0 en un bucle externo cuyas pasadas hacen hasta n pasos: con
+        // CHECK_MASK fijo, una revisin cada 256 pasadas son 256n pasos y el exceso crece con n
+        public static int quadraticCheckMask(int n) {
+            int stride = Math.max(1, CHECK_WORK / Math.max(1, n));
+            return Math.min(CHECK_MASK, Integer.highestOneBit(stride) - 1);
+        }
+
+        // done de total pasos hechos; lanza SortCancelledException si ya pas el lmite
+        public void checkpoint(long done, long total) {
+            if (isCancelled()) {
+                throw new SortCancelledException(total <= 0 ? 0 : Math.min(1.0, (double) done / total));
+            }
+        }
+    }
+
+    public static class SortCancelledException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final double progress;
+
+        public SortCancelledException(double progress) {
+            // sin stack trace: es control de flujo, no un error
+            super(String.format("ordenamiento cancelado al %.1f%%", progress * 100), null, false, false);
+            this.progress = progress;
+        }
+
+        // fraccin de pasadas completadas en [0, 1]
+        public double getProgress() { return progress; }
+    }
+
+    // Contadores de recursos de la JVM: bytes reservados y tiempo de CPU del hilo actual
+    // (com.sun.management.ThreadMXBean) y pausas acumuladas de todos los recolectores. Si la JVM
+    // no soporta una medicin, su lectura es -1 y el reporte la muestra como N/A. Solo ve al hilo
+    // que llama: lo que reservan o calculan los hilos de un pool (PARALLEL_*, SAMPLE_SORT) no entra.
+    public static class ResourceMeter {
+        private static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+        private static final com.sun.management.ThreadMXBean SUN_THREADS =
+                THREADS instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) THREADS : null;
+        private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+        private static final boolean ALLOCATION_SUPPORTED;
+        private static final boolean CPU_SUPPORTED;
+
+        static {
+            boolean allocation = false, cpu = false;
+            try {
+                if (SUN_THREADS != null && SUN_THREADS.isThreadAllocatedMemorySupported()) {
+                    if (!SUN_THREADS.isThreadAllocatedMemoryEnabled()) SUN_THREADS.setThreadAllocatedMemoryEnabled(true);
+                    allocation = true;
+                }
+                if (THREADS.isCurrentThreadCpuTimeSupported()) {
+                    if (!THREADS.isThreadCpuTimeEnabled()) THREADS.setThreadCpuTimeEnabled(true);
+                    cpu = true;
+                }
+            } catch (UnsupportedOperationException | SecurityException e) {
+                // se queda sin la medicin que fall
+            }
+            ALLOCATION_SUPPORTED = allocation;
+            CPU_SUPPORTED = cpu;
+        }
+
+        public static boolean isAllocationSupported() { return ALLOCATION_SUPPORTED; }
+        public static boolean isCpuSupported() { return CPU_SUPPORTED; }
+
+        // bytes reservados por el hilo actual desde que arranc, o -1
+        public static long allocatedBytes() {
+            return ALLOCATION_SUPPORTED ? SUN_THREADS.getCurrentThreadAllocatedBytes() : -1;
+        }
+
+        // tiempo de CPU (usuario + sistema) del hilo actual en nanosegundos, o -1
+        public static long cpuNanos() {
+            return CPU_SUPPORTED ? THREADS.getCurrentThreadCpuTime() : -1;
+        }
+
+        // pausas de recoleccin acumuladas desde que arranc la JVM, sumando todos los recolectores
+        public static GcSample sampleGc() {
+            long count = 0, millis = 0;
+            for (GarbageCollectorMXBean collector : COLLECTORS) {
+                count += Math.max(0, collector.getCollectionCount());
+                millis += Math.max(0, collector.getCollectionTime());
+            }
+            return new GcSample(count, millis);
+        }
+
+        public static String describeCollectors() {
+            return COLLECTORS.stream().map(GarbageCollectorMXBean::getName).collect(Collectors.joining(", "));
+        }
+    }
+
+    public static class GcSample {
+        public final long count;
+        public final long millis;
+
+        public GcSample(long count, long millis) {
+            this.count = count;
+            this.millis = millis;
+        }
+
+        // pausas ocurridas entre earlier y esta muestra
+        public GcSample since(GcSample earlier) {
+            return new GcSample(count - earlier.count, millis - earlier.millis);
+        }
+    }
+
+    // Verificacin de salidas: que estn ordenadas y que sean permutacin de la entrada. El checksum
+    // suma un hash de 64 bits de cada valor, as no depende del orden pero s detecta valores
+    // perdidos, duplicados o cambiados (una suma simple no ve un -1 y un +1 que se compensan).
+    public static class SortVerifier {
+        private static long mix(int value) {
+            long h = value * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            return h ^ (h >>> 33);
+        }
+
+        public static boolean isSorted(int[] arr, int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                if (arr[i - 1] > arr[i]) return false;
+            }
+            return true;
+        }
+
+        public static long checksum(int[] arr, int from, int to) {
+            long sum = 0;
+            for (int i = from; i < to; i++) sum += mix(arr[i]);
+            return sum;
+        }
+
+        public static long checksum(DataCollection collection) {
+            long sum = 0;
+            for (int i = 0; i < collection.size(); i++) sum += mix(collection.get(i));
+            return sum;
+        }
+
+        // data es una copia de prepareCopy(): int[], IntList o List<Integer>
+        @SuppressWarnings("unchecked")
+        public static boolean isSorted(Object data) {
+            if (data instanceof int[]) return isSorted((int[]) data, 0, ((int[]) data).length);
+            if (data instanceof IntList) return isSorted(((IntList) data).elements(), 0, ((IntList) data).size());
+            int previous = Integer.MIN_VALUE;
+            for (int value : (List<Integer>) data) {
+                if (value < previous) return false;
+                previous = value;
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        public static long checksum(Object data) {
+            if (data instanceof int[]) return checksum((int[]) data, 0, ((int[]) data).length);
+            if (data instanceof IntList) return checksum(((IntList) data).elements(), 0, ((IntList) data).size());
+            long sum = 0;
+            for (int value : (List<Integer>) data) sum += mix(value);
+            return sum;
+        }
+    }
+
+    // Cola acotada sin candados para varios productores y consumidores (anillo de Vyukov): cada
+    // casilla lleva un nmero de secuencia que dice si est libre para el productor de esa vuelta o
+    // lista para el consumidor, y head/tail avanzan con CAS. offer/poll nunca bloquean; put/take
+    // esperan girando, luego cediendo el hilo y al final con parkNanos. Cada offer exitoso anota la
+    // ocupacin para el reporte.
+    public static class BoundedQueue<T> {
+        private final AtomicReferenceArray<T> slots;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+        private final LongAdder occupancySum = new LongAdder();
+        private final LongAdder occupancySamples = new LongAdder();
+        private final LongAccumulator maxOccupancy = new LongAccumulator(Math::max, 0);
+
+        // la capacidad se redondea a la siguiente potencia de dos
+        public BoundedQueue(int capacity) {
+            if (capacity < 1) throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacity);
+            int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            this.slots = new AtomicReferenceArray<>(size);
+            this.sequences = new AtomicLongArray(size);
+            this.mask = size - 1;
+            for (int i = 0; i < size; i++) sequences.set(i, i);
+        }
+
+        public int capacity() { return mask + 1; }
+
+        public int size() {
+            return (int) Math.max(0, Math.min(capacity(), tail.get() - head.get()));
+        }
+
+        public boolean isEmpty() { return size() == 0; }
+
+        // false si est llena
+        public boolean offer(T item) {
+            long pos = tail.get();
+            while (true) {
+                int index = (int) (pos & mask);
+                long diff = sequences.get(index) - pos;
+                if (diff == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        slots.set(index, item);
+                        sequences.set(index, pos + 1);
+                        long occupancy = pos + 1 - head.get();
+                        occupancySum.add(occupancy);
+                        occupancySamples.increment();
+                        maxOccupancy.accumulate(occupancy);
+                        return true;
+                    }
+                    pos = tail.get();
+                } else if (diff < 0) {
+                    return false;
+                } else {
+                    pos = tail.get();
+                }
+            }
+        }
+
+        // null si est vaca
+        public T poll() {
+            long pos = head.get();
+            while (true) {
+                int index = (int) (pos & mask);
+                long diff = sequences.get(index) - (pos + 1);
+                if (diff == 0) {
+                    if (head.compareAndSet(pos, pos + 1)) {
+                        T item = slots.get(index);
+                        slots.set(index, null);
+                        sequences.set(index, pos + mask + 1);
+                        return item;
+                    }
+                    pos = head.get();
+                } else if (diff < 0) {
+                    return null;
+                } else {
+                    pos = head.get();
+                }
+            }
+        }
+
+        // espera lugar; false si abort se cumpli antes de poder meter item
+        public boolean put(T item, BooleanSupplier abort) {
+            for (int spins = 0; !offer(item); spins++) {
+                if (abort.getAsBoolean()) return false;
+                backoff(spins);
+            }
+            return true;
+        }
+
+        // espera un elemento; null si abort se cumpli con la cola vaca
+        public T take(BooleanSupplier abort) {
+            T item;
+            for (int spins = 0; (item = poll()) == null; spins++) {
+                if (abort.getAsBoolean()) return null;
+                backoff(spins);
+            }
+            return item;
+        }
+
+        private static void backoff(int spins) {
+            if (spins < 64) {
+                Thread.onSpinWait();
+            } else if (spins < 128) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(50_000);
+            }
+        }
+
+        public double getAverageOccupancy() {
+            long samples = occupancySamples.sum();
+            return samples == 0 ? 0 : (double) occupancySum.sum() / samples;
+        }
+
+        public long getMaxOccupancy() { return maxOccupancy.get(); }
+    }
+
+    // Contadores del modo canalizado de una SortTask: qu hizo cada etapa y cunto tiempo estuvo
+    // ocupada. El throughput de cada etapa es elementos / tiempo ocupado; el sostenido del
+    // ordenador es elementos / duracin de la tarea.
+    public static class PipelineStats {
+        // una copia en camino: la coleccin de origen y el buffer (int[], IntList o List<Integer>)
+        static final class Item {
+            final int collection;
+            final Object data;
+
+            Item(int collection, Object data) {
+                this.collection = collection;
+                this.data = data;
+            }
+        }
+
+        final BoundedQueue<Item> ready;
+        final BoundedQueue<Item> verify;
+        final LongAdder copied = new LongAdder();
+        final LongAdder copiedElements = new LongAdder();
+        final LongAdder copyNanos = new LongAdder();
+        final LongAdder verified = new LongAdder();
+        final LongAdder verifiedElements = new LongAdder();
+        final LongAdder verifyNanos = new LongAdder();
+        final LongAdder unsorted = new LongAdder();
+        final LongAdder notPermutation = new LongAdder();
+        // salidas con al menos una de las dos fallas
+        final LongAdder failed = new LongAdder();
+        volatile boolean sorterDone;
+
+        PipelineStats(int depth) {
+            this.ready = new BoundedQueue<>(depth);
+            this.verify = new BoundedQueue<>(depth);
+        }
+
+        public BoundedQueue<Item> getReadyQueue() { return ready; }
+        public BoundedQueue<Item> getVerifyQueue() { return verify; }
+        public long getCopied() { return copied.sum(); }
+        public long getVerified() { return verified.sum(); }
+        public long getUnsorted() { return unsorted.sum(); }
+        public long getNotPermutation() { return notPermutation.sum(); }
+        public long getFailed() { return failed.sum(); }
+
+        public double getCopyElementsPerSecond() { return perSecond(copiedElements.sum(), copyNanos.sum()); }
+        public double getVerifyElementsPerSecond() { return perSecond(verifiedElements.sum(), verifyNanos.sum()); }
+
+        static double perSecond(long elements, long nanos) {
+            return nanos == 0 ? 0 : elements / (nanos / 1e9);
+        }
+    }
+
+//AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA
+    //4. Clase SortTask y ejecucin de hilos
+    // Vista en vivo de una SortTask por JMX (jconsole, VisualVM): se puede leer mientras la tarea
+    // corre, as que todo sale de contadores LongAdder y campos volatile, nunca del histograma.
+    public interface SortTaskMXBean {
+        String getName();
+        boolean isRunning();
+        long getElapsedMillis();
+        long getSortedCollectionsCount();
+        long getTotalExecutionTimeMillis();
+        double getSortsPerSecond();
+        double getElementsPerSecond();
+        String getCurrentCollection();
+        long getCurrentSortMillis();
+        String[] getCollectionNames();
+        long[] getCompletedSortsPerCollection();
+        double getMeanLatencyMillis();
+        double getMaxLatencyMillis();
+    }
+
+    public static class SortTask implements Runnable, SortTaskMXBean {
+        private final SortType sortType;
+        private final long durationMillis;
+        private final DatasetRegistry registry;
+        // el reloj de la tarea arranca cuando el planificador la pone a correr, no al crearla
+        private volatile long startTimeMillis;
+        private volatile long finishTimeMillis;
+
+        // Contadores que JMX y el reporte de progreso leen desde otros hilos mientras la tarea corre
+        private final LongAdder sortedCollectionsCount = new LongAdder();
+        private final LongAdder totalExecutionTimeNanos = new LongAdder();
+        private final LongAdder sortedElements = new LongAdder();
+        private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+        private volatile LongAdder[] completedPerCollection = new LongAdder[0];
+        // coleccin que se est ordenando ahora y desde cundo (nanoTime); null entre vueltas
+        private volatile DataCollection currentCollection;
+        private volatile long currentSortStartNanos;
+
+        // recursos del hilo de la tarea en los ordenamientos contados (copia + orden, como el tiempo)
+        private final LongAdder totalAllocatedBytes = new LongAdder();
+        private final LongAdder totalCpuNanos = new LongAdder();
+        // pausas de GC (de cualquier hilo) que cayeron dentro de los ordenamientos contados
+        private final LongAdder gcPauses = new LongAdder();
+        private final LongAdder gcMillis = new LongAdder();
+
+        // un histograma de latencias por coleccin, en el mismo orden que el registro
+        private volatile List<DataCollection> collections = Collections.emptyList();
+        private volatile LatencyHistogram[] latencies = new LatencyHistogram[0];
+
+        // Los kernels revisan este token; fuera de run() (p. ej. en JMH) nunca se cancela
+        private CancellationToken token = CancellationToken.NONE;
+        // avance del merge sort secuencial en curso; lo arma beginMergeProgress()
+        private IntConsumer mergeProgress = merged -> { };
+
+        // ordenamiento que el lmite de tiempo cort a la mitad, si hubo
+        private volatile DataCollection interruptedCollection;
+        private volatile double interruptedProgress;
+        private volatile long interruptedNanos;
+
+        // solo lo usa AUTO: el kernel elegido para cada coleccin (la ltima vez que se orden)
+        private volatile AdaptiveSort.Plan[] autoPlans = new AdaptiveSort.Plan[0];
+        private AdaptiveSort.Plan lastAutoPlan;
+
+        // solo lo usa EXTERNAL_MERGE_SORT: estadsticas del ltimo ordenamiento en disco
+        private volatile ExternalSorter.Stats externalStats;
+
+        // solo en modo canalizado: contadores de las etapas y ocupacin de las colas
+        private volatile PipelineStats pipelineStats;
+
+        // solo en modo planificado: modelo calibrado y plan que sigui la tarea
+        private volatile SortPlan sortPlan;
+
+        public SortTask(SortType sortType, long durationMillis, DatasetRegistry registry) {
+            this.sortType = sortType;
+            this.durationMillis = durationMillis;
+            this.registry = registry;
+        }
+
+        @Override
+        public long getSortedCollectionsCount() { return sortedCollectionsCount.sum(); }
+        @Override
+        public long getTotalExecutionTimeMillis() { return TimeUnit.NANOSECONDS.toMillis(totalExecutionTimeNanos.sum()); }
+        public List<DataCollection> getCollections() { return collections; }
+        public LatencyHistogram[] getLatencies() { return latencies; }
+        public SortType getSortType() { return sortType; }
+        public DataCollection getInterruptedCollection() { return interruptedCollection; }
+        public double getInterruptedProgress() { return interruptedProgress; }
+        public long getInterruptedNanos() { return interruptedNanos; }
+        public ExternalSorter.Stats getExternalStats() { return externalStats; }
+        public AdaptiveSort.Plan[] getAutoPlans() { return autoPlans; }
+        public PipelineStats getPipelineStats() { return pipelineStats; }
+        public SortPlan getSortPlan() { return sortPlan; }
+
+        public double getAverageTimePerSort() {
+            long count = sortedCollectionsCount.sum();
+            if (count == 0) return 0;
+            return totalExecutionTimeNanos.sum() / 1e6 / count;
+        }
+
+        public long getTotalExecutionTimeNanos() { return totalExecutionTimeNanos.sum(); }
+        // -1 si la JVM no mide el tiempo de CPU por hilo
+        public long getTotalCpuNanos() { return ResourceMeter.isCpuSupported() ? totalCpuNanos.sum() : -1; }
+        public long getGcPauses() { return gcPauses.sum(); }
+        public long getGcMillis() { return gcMillis.sum(); }
+
+        // bytes reservados por ordenamiento, o -1 si no se midi
+        public double getAllocatedBytesPerSort() {
+            long count = sortedCollectionsCount.sum();
+            if (!ResourceMeter.isAllocationSupported() || count == 0) return -1;
+            return (double) totalAllocatedBytes.sum() / count;
+        }
+
+        // fraccin del tiempo de pared de los ordenamientos que la JVM pas en pausas de GC
+        public double getGcShare() {
+            long nanos = totalExecutionTimeNanos.sum();
+            if (nanos == 0) return 0;
+            return Math.min(1.0, TimeUnit.MILLISECONDS.toNanos(gcMillis.sum()) / (double) nanos);
+        }
+
+        // --- SortTaskMXBean: lecturas en vivo ---
+
+        @Override
+        public String getName() { return sortType.uniqueName; }
+
+        @Override
+        public boolean isRunning() { return startTimeMillis != 0 && finishTimeMillis == 0; }
+
+        // tiempo desde que el planificador la arranc (0 si an no arranca)
+        @Override
+        public long getElapsedMillis() {
+            long start = startTimeMillis;
+            if (start == 0) return 0;
+            long end = finishTimeMillis;
+            return (end == 0 ? System.currentTimeMillis() : end) - start;
+        }
+
+        @Override
+        public double getSortsPerSecond() {
+            long elapsed = getElapsedMillis();
+            return elapsed == 0 ? 0 : sortedCollectionsCount.sum() * 1000.0 / elapsed;
+        }
+
+        @Override
+        public double getElementsPerSecond() {
+            long elapsed = getElapsedMillis();
+            return elapsed == 0 ? 0 : sortedElements.sum() * 1000.0 / elapsed;
+        }
+
+        @Override
+        public String getCurrentCollection() {
+            DataCollection current = currentCollection;
+            return current == null ? "" : current.name;
+        }
+
+        // cunto lleva el ordenamiento en curso: si crece sin parar, la tarea est atorada
+        @Override
+        public long getCurrentSortMillis() {
+            if (currentCollection == null) return 0;
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - currentSortStartNanos);
+        }
+
+        @Override
+        public String[] getCollectionNames() {
+            return collections.stream().map(c -> c.name).toArray(String[]::new);
+        }
+
+        @Override
+        public long[] getCompletedSortsPerCollection() {
+            LongAdder[] completed = completedPerCollection;
+            long[] counts = new long[completed.length];
+            for (int i = 0; i < counts.length; i++) counts[i] = completed[i].sum();
+            return counts;
+        }
+
+        @Override
+        public double getMeanLatencyMillis() { return getAverageTimePerSort(); }
+
+        @Override
+        public double getMaxLatencyMillis() { return maxLatencyNanos.get() / 1e6; }
+
+        // Tamao mximo de copia que se guarda entre vueltas para reutilizarla
+        private static final int MAX_RETAINED_COPY = 1 << 22;
+
+        // Profundidad de las colas del modo canalizado: copias listas por adelantado
+        private static final int PIPELINE_DEPTH = 4;
+
+        @Override
+        public void run() {
+            List<DataCollection> collections = beginRun();
+            // un buffer de copia por coleccin, reutilizado en cada vuelta
+            Object[] copies = new Object[collections.size()];
+            int collectionIndex = 0;
+
+            // El hilo anda en bucle hasta que se cumpla la restriccin de tiempo si quiere pq nunca jala
+            while (System.currentTimeMillis() < startTimeMillis + durationMillis) {
+                int current = collectionIndex % collections.size();
+                DataCollection currentCollection = collections.get(current);
+                boolean keepGoing = measuredSort(current, currentCollection, () -> {
+                    Object copy = prepareCopy(currentCollection, copies[current]);
+                    // las colecciones enormes no se retienen: una copia por tarea y coleccin no cabe en memoria
+                    copies[current] = currentCollection.size() <= MAX_RETAINED_COPY ? copy : null;
+                    sortCopy(copy);
+                });
+                if (!keepGoing) break;
+                collectionIndex++;
+            }
+            endRun();
+        }
+
+        // Variante canalizada de run() (--planificador=canalizado): un hilo copia las colecciones por
+        // adelantado en la cola ready, este hilo solo ordena, y un hilo verificador revisa que cada
+        // salida est ordenada y sea permutacin de la entrada, y regresa el buffer al copiador. La
+        // latencia registrada es solo la del ordenamiento: la copia ya no entra en el tiempo.
+        public void runPipelined() {
+            List<DataCollection> collections = beginRun();
+            PipelineStats stats = new PipelineStats(PIPELINE_DEPTH);
+            this.pipelineStats = stats;
+            long[] expectedChecksums = new long[collections.size()];
+            for (int i = 0; i < expectedChecksums.length; i++) {
+                expectedChecksums[i] = SortVerifier.checksum(collections.get(i));
+            }
+            // buffers que el verificador ya revis y el copiador puede volver a llenar
+            BoundedQueue<PipelineStats.Item> recycled = new BoundedQueue<>(4 * PIPELINE_DEPTH);
+            long deadlineMillis = startTimeMillis + durationMillis;
+            BooleanSupplier expired = () -> System.currentTimeMillis() >= deadlineMillis;
+
+            Thread copier = new Thread(() -> copyStage(collections, stats, recycled, expired),
+                                       sortType.uniqueName + " (copia)");
+            Thread verifier = new Thread(() -> verifyStage(collections, expectedChecksums, stats, recycled),
+                                         sortType.uniqueName + " (verificacin)");
+            copier.setDaemon(true);
+            verifier.setDaemon(true);
+            copier.start();
+            verifier.start();
+            try {
+                while (!expired.getAsBoolean()) {
+                    PipelineStats.Item item = stats.ready.take(expired);
+                    if (item == null) break;
+                    DataCollection collection = collections.get(item.collection);
+                    if (!measuredSort(item.collection, collection, () -> sortCopy(item.data))) break;
+                    // si el verificador muri nadie vaca la cola: se deja de esperar en lugar de atorarse
+                    if (!stats.verify.put(item, () -> !verifier.isAlive() || expired.getAsBoolean())) break;
+                }
+            } finally {
+                stats.sorterDone = true;
+                joinQuietly(copier);
+                joinQuietly(verifier);
+                endRun();
+            }
+        }
+
+        // Variante planificada de run() (--planificador=planificado): calibra un modelo de costo con
+        // sondas cortas, arma un plan con el presupuesto que queda y lo sigue. Un ordenamiento solo
+        // arranca si su costo predicho cabe en el tiempo restante, as que las tareas O(n) ya no
+        // gastan todo su tiempo en una coleccin de 100,000 que el lmite termina cortando.
+        public void runPlanned() {
+            List<DataCollection> collections = beginRun();
+            long deadlineMillis = startTimeMillis + durationMillis;
+            try {
+                // la calibracin sale del presupuesto de la tarea, a lo ms una dcima parte
+                CostModel model = CostModel.calibrate(this, collections,
+                                                      TimeUnit.MILLISECONDS.toNanos(durationMillis) / 10);
+                long remainingNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis - System.currentTimeMillis());
+                SortPlan plan = SortPlan.build(model, collections, Math.max(0, remainingNanos));
+                this.sortPlan = plan;
+                followPlan(plan, collections, deadlineMillis);
+            } catch (SortCancelledException e) {
+                // la calibracin se comi todo el presupuesto: no hay nada que planear
+            } catch (RuntimeException | StackOverflowError e) {
+                System.err.printf("ERROR en Hilo %s: fall la calibracin (%s). Terminando hilo.\n", sortType.uniqueName, e);
+            } finally {
+                endRun();
+            }
+        }
+
+        // Recorre el plan de la ms barata a la ms cara, una y otra vez, mientras algo quepa. Las
+        // muestras solo se ordenan en la primera vuelta y no cuentan como colecciones completadas.
+        private void followPlan(SortPlan plan, List<DataCollection> collections, long deadlineMillis) {
+            Object[] copies = new Object[collections.size()];
+            boolean firstPass = true;
+            boolean ranAny = true;
+            while (ranAny) {
+                ranAny = false;
+                for (SortPlan.Entry entry : plan.getEntries()) {
+                    if (entry.action == SortPlan.Action.SKIP) continue;
+                    if (entry.action == SortPlan.Action.SAMPLE && !firstPass) continue;
+                    long remainingNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis - System.currentTimeMillis());
+                    if (!plan.fits(entry, remainingNanos)) continue;
+                    int current = entry.collection;
+                    DataCollection collection = collections.get(current);
+                    boolean keepGoing;
+                    if (entry.action == SortPlan.Action.FULL) {
+                        keepGoing = measuredSort(current, collection, () -> {
+                            Object copy = prepareCopy(collection, copies[current]);
+                            copies[current] = collection.size() <= MAX_RETAINED_COPY ? copy : null;
+                            sortCopy(copy);
+                        });
+                    } else {
+                        keepGoing = sortSample(entry, collection);
+                    }
+                    if (!keepGoing) return;
+                    ranAny = true;
+                }
+                firstPass = false;
+            }
+        }
+
+        // Ordena una muestra de entry.size elementos de la coleccin y anota su tiempo en el plan
+        private boolean sortSample(SortPlan.Entry entry, DataCollection collection) {
+            DataCollection sample = CostModel.sample(collection, entry.size);
+            long start = System.nanoTime();
+            try {
+                sortCopy(prepareCopy(sample, null));
+            } catch (SortCancelledException e) {
+                return false;
+            } catch (RuntimeException | StackOverflowError e) {
+                System.err.printf("ERROR en Hilo %s: fall la muestra de %s (%s). Terminando hilo.\n",
+                                  sortType.uniqueName, collection.name, e);
+                return false;
+            }
+            entry.sampleNanos = System.nanoTime() - start;
+            return true;
+        }
+
+        private void copyStage(List<DataCollection> collections, PipelineStats stats,
+                               BoundedQueue<PipelineStats.Item> recycled, BooleanSupplier expired) {
+            // buffers libres por coleccin; solo este hilo los toca
+            List<List<Object>> free = new ArrayList<>();
+            for (int i = 0; i < collections.size(); i++) free.add(new ArrayList<>());
+            BooleanSupplier stop = () -> stats.sorterDone || expired.getAsBoolean();
+            int collectionIndex = 0;
+            try {
+                while (!stop.getAsBoolean()) {
+                    PipelineStats.Item done;
+                    while ((done = recycled.poll()) != null) free.get(done.collection).add(done.data);
+                    int current = collectionIndex++ % collections.size();
+                    DataCollection collection = collections.get(current);
+                    List<Object> buffers = free.get(current);
+                    Object reuse = buffers.isEmpty() ? null : buffers.remove(buffers.size() - 1);
+                    long start = System.nanoTime();
+                    Object copy = prepareCopy(collection, reuse);
+                    stats.copyNanos.add(System.nanoTime() - start);
+                    stats.copied.increment();
+                    stats.copiedElements.add(collection.size());
+                    if (!stats.ready.put(new PipelineStats.Item(current, copy), stop)) break;
+                }
+            } catch (RuntimeException | OutOfMemoryError e) {
+                System.err.printf("ERROR en Hilo %s: fall la copia (%s). Terminando copiador.\n", sortType.uniqueName, e);
+            }
+        }
+
+        private void verifyStage(List<DataCollection> collections, long[] expectedChecksums, PipelineStats stats,
+                                 BoundedQueue<PipelineStats.Item> recycled) {
+            // el ordenador ya no mete nada despus de sorterDone, as que cola vaca es el final
+            BooleanSupplier finished = () -> stats.sorterDone && stats.verify.isEmpty();
+            PipelineStats.Item item;
+            try {
+                while ((item = stats.verify.take(finished)) != null) {
+                    long start = System.nanoTime();
+                    boolean sorted = SortVerifier.isSorted(item.data);
+                    boolean permutation = SortVerifier.checksum(item.data) == expectedChecksums[item.collection];
+                    stats.verifyNanos.add(System.nanoTime() - start);
+                    stats.verified.increment();
+                    stats.verifiedElements.add(collections.get(item.collection).size());
+                    if (!sorted || !permutation) {
+                        if (stats.failed.sum() == 0) {
+                            System.err.printf("ERROR en Hilo %s: la salida de %s %s.\n", sortType.uniqueName,
+                                              collections.get(item.collection).name,
+                                              !sorted ? "no est ordenada" : "no es permutacin de la entrada");
+                        }
+                        stats.failed.increment();
+                        if (!sorted) stats.unsorted.increment();
+                        if (!permutation) stats.notPermutation.increment();
+                    }
+                    if (collections.get(item.collection).size() <= MAX_RETAINED_COPY) recycled.offer(item);
+                }
+            } catch (RuntimeException | OutOfMemoryError e) {
+                System.err.printf("ERROR en Hilo %s: fall la verificacin (%s). Terminando verificador.\n", sortType.uniqueName, e);
+            }
+        }
+
+        private static void joinQuietly(Thread thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Prepara el estado de una corrida (histogramas, contadores por coleccin, token) y la arranca
+        private List<DataCollection> beginRun() {
+            startTimeMillis = System.currentTimeMillis();
+            List<DataCollection> collections = registry.getCollections();
+            LatencyHistogram[] latencies = new LatencyHistogram[collections.size()];
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new LatencyHistogram();
+            }
+            LongAdder[] completedPerCollection = new LongAdder[collections.size()];
+            for (int i = 0; i < completedPerCollection.length; i++) {
+                completedPerCollection[i] = new LongAdder();
+            }
+            this.completedPerCollection = completedPerCollection;
+            this.collections = collections;
+            this.latencies = latencies;
+            this.autoPlans = new AdaptiveSort.Plan[collections.size()];
+            this.token = CancellationToken.withDeadlineMillis(startTimeMillis + durationMillis);
+            return collections;
+        }
+
+        private void endRun() {
+            this.currentCollection = null;
+            this.finishTimeMillis = System.currentTimeMillis();
+        }
+
+        // Corre body (copia y/o orden de la coleccin current) midiendo tiempo, memoria, CPU y GC,
+        // y lo cuenta si termin antes del lmite. Regresa false si la tarea debe terminar.
+        private boolean measuredSort(int current, DataCollection currentCollection, Runnable body) {
+            // los contadores se leen fuera de la ventana de nanoTime para no inflar la latencia
+            long allocatedBefore = ResourceMeter.allocatedBytes();
+            long cpuBefore = ResourceMeter.cpuNanos();
+            GcSample gcBefore = ResourceMeter.sampleGc();
+            long start = System.nanoTime();
+            this.currentSortStartNanos = start;
+            this.currentCollection = currentCollection;
+
+            try {
+                body.run();
+                if (lastAutoPlan != null) autoPlans[current] = lastAutoPlan;
+            } catch (SortCancelledException e) {
+                // se acab el tiempo a media ordenacin: se reporta el avance en lugar de tirarlo
+                interruptedCollection = currentCollection;
+                interruptedProgress = e.getProgress();
+                interruptedNanos = System.nanoTime() - start;
+                return false;
+            } catch (StackOverflowError e) {
+                System.err.printf("ERROR en Hilo %s: StackOverflow (Recursin profunda). Terminando hilo.\n", sortType.uniqueName);
+                return false;
+            } catch (IndexOutOfBoundsException e) { 
+                System.err.printf("ERROR en Hilo %s: Fallo de ndice en la particin de QuickSort (%s). Terminando hilo.\n", sortType.uniqueName, e.getMessage());
+                return false;
+            } catch (Exception e) {
+                System.err.printf("ERROR en Hilo %s: Excepcin inesperada (%s). Terminando hilo.\n", sortType.uniqueName, e.getMessage());
+                return false;
+            }
+
+            long sortTime = System.nanoTime() - start;
+            long allocated = ResourceMeter.allocatedBytes() - allocatedBefore;
+            long cpu = ResourceMeter.cpuNanos() - cpuBefore;
+            GcSample gc = ResourceMeter.sampleGc().since(gcBefore);
+
+            if (System.currentTimeMillis() < startTimeMillis + durationMillis) {
+                latencies[current].record(sortTime);
+                totalExecutionTimeNanos.add(sortTime);
+                sortedCollectionsCount.increment();
+                sortedElements.add(currentCollection.size());
+                completedPerCollection[current].increment();
+                maxLatencyNanos.accumulate(sortTime);
+                totalAllocatedBytes.add(allocated);
+                totalCpuNanos.add(cpu);
+                gcPauses.add(gc.count);
+                gcMillis.add(gc.millis);
+            }
+            return true;
+        }
+        
+        // Copia la coleccin en la estructura de esta tarea (int[], List<Integer> o IntList),
+        // reutilizando reuse si es una copia anterior de la misma coleccin (o null).
+        // Es pblico para que el benchmark JMH pueda copiar fuera de la medicin.
+        @SuppressWarnings("unchecked")
+        public Object prepareCopy(DataCollection collection, Object reuse) {
+            switch (sortType.structure) {
+                case ARRAY: return collection.copyInto((int[]) reuse);
+                case ARRAY_LIST: return collection.copyInto((List<Integer>) reuse);
+                default: return collection.copyInto((IntList) reuse);
+            }
+        }
+
+        // Ordena una copia creada con prepareCopy() usando el algoritmo de esta tarea
+        @SuppressWarnings("unchecked")
+        public void sortCopy(Object data) {
+            // Decide si usar Array, ArrayList o IntList
+            switch (sortType.structure) {
+                case ARRAY:
+                    executeArraySort((int[]) data, sortType.algorithm);
+                    break;
+                case ARRAY_LIST:
+                    executeListSort((List<Integer>) data, sortType.algorithm);
+                    break;
+                case INT_LIST:
+                    executeIntListSort((IntList) data, sortType.algorithm);
+                    break;
+            }
+        }
+
+       //5. Implementacin de algoritmos (Array, ArrayList e IntList)
+        // AUTO y EXTERNAL_MERGE_SORT guardan su plan y sus estadsticas en la tarea; el resto no tiene estado
+        private void executeArraySort(int[] arr, SortAlgorithm algo) {
+            switch (algo) {
+                case AUTO: autoSort(arr, 0, arr.length); break;
+                case EXTERNAL_MERGE_SORT: externalSort(arr, 0, arr.length); break;
+                default: sortArray(arr, algo, token); break;
+            }
+        }
+
+        // Despacho de los kernels sobre int[] sin el estado de una tarea: para quien solo necesita
+        // ordenar un arreglo (el trabajador distribuido, los lotes del StreamingSorter). Aqu AUTO y
+        // EXTERNAL_MERGE_SORT no dejan su plan ni sus estadsticas en ningn lado.
+        public static void sortArray(int[] arr, SortAlgorithm algo, CancellationToken token) {
+            switch (algo) {
+                case BUBBLE_SORT: bubbleSort(arr, token); break;
+                case SELECTION_SORT: selectionSort(arr, token); break;
+                case INSERTION_SORT: insertionSort(arr, token); break;
+                case MERGE_SORT: mergeSort(arr, 0, arr.length - 1, newMergeProgress(arr.length, token)); break;
+                case PARALLEL_MERGE_SORT: ParallelMergeSort.sort(arr, arr.length, token); break;
+                case QUICK_SORT: IntroSort.sort(arr, 0, arr.length, token); break;
+                case COUNTING_SORT: CountingSort.sort(arr); break;
+                case RADIX_SORT: RadixSort.sort(arr); break;
+                case PARALLEL_RADIX_SORT: RadixSort.parallelSort(arr); break;
+                case SIMD_QUICK_SORT: SimdSort.quickSort(arr, 0, arr.length, token); break;
+                case SIMD_MERGE_SORT: SimdSort.mergeSort(arr, 0, arr.length, token); break;
+                case SAMPLE_SORT: SampleSort.sort(arr, 0, arr.length, token); break;
+                case AUTO: AdaptiveSort.sort(arr, 0, arr.length, token); break;
+                case EXTERNAL_MERGE_SORT: externalSort(arr, 0, arr.length, token); break;
+            }
+        }
+
+        
+        private void executeListSort(List<Integer> list, SortAlgorithm algo) {
+            switch (algo) {
+                case BUBBLE_SORT: bubbleSort(list); break;
+                case SELECTION_SORT: selectionSort(list); break;
+                case INSERTION_SORT: insertionSort(list); break;
+                case MERGE_SORT:
+                    beginMergeProgress(list.size());
+                    mergeSortList(list, 0, list.size() - 1);
+                    break;
+                case PARALLEL_MERGE_SORT: sortViaArray(list, arr -> ParallelMergeSort.sort(arr, arr.length, token)); break;
+                case QUICK_SORT: IntroSort.sort(list, token); break;
+                case COUNTING_SORT: CountingSort.sort(list); break;
+                case RADIX_SORT: sortViaArray(list, RadixSort::sort); break;
+                case PARALLEL_RADIX_SORT: sortViaArray(list, RadixSort::parallelSort); break;
+                case SIMD_QUICK_SORT: sortViaArray(list, arr -> SimdSort.quickSort(arr, 0, arr.length, token)); break;
+                case SIMD_MERGE_SORT: sortViaArray(list, arr -> SimdSort.mergeSort(arr, 0, arr.length, token)); break;
+                case SAMPLE_SORT: sortViaArray(list, arr -> SampleSort.sort(arr, 0, arr.length, token)); break;
+                case AUTO: sortViaArray(list, arr -> autoSort(arr, 0, arr.length)); break;
+                case EXTERNAL_MERGE_SORT: sortViaArray(list, arr -> externalSort(arr, 0, arr.length)); break;
+            }
+        }
+
+        private void executeIntListSort(IntList list, SortAlgorithm algo) {
+            switch (algo) {
+                case BUBBLE_SORT: bubbleSort(list); break;
+                case SELECTION_SORT: selectionSort(list); break;
+                case INSERTION_SORT: insertionSort(list); break;
+                case MERGE_SORT:
+                    beginMergeProgress(list.size());
+                    mergeSortIntList(list, new int[list.size()], 0, list.size() - 1);
+                    break;
+                case PARALLEL_MERGE_SORT: ParallelMergeSort.sort(list.elements(), list.size(), token); break;
+                case QUICK_SORT: IntroSort.sort(list.elements(), 0, list.size(), token); break;
+                case COUNTING_SORT: CountingSort.sort(list.elements(), 0, list.size()); break;
+                case RADIX_SORT: RadixSort.sort(list.elements(), 0, list.size()); break;
+                case PARALLEL_RADIX_SORT: RadixSort.parallelSort(list.elements(), 0, list.size()); break;
+                case SIMD_QUICK_SORT: SimdSort.quickSort(list.elements(), 0, list.size(), token); break;
+                case SIMD_MERGE_SORT: SimdSort.mergeSort(list.elements(), 0, list.size(), token); break;
+                case SAMPLE_SORT: SampleSort.sort(list.elements(), 0, list.size(), token); break;
+                case AUTO: autoSort(list.elements(), 0, list.size()); break;
+                case EXTERNAL_MERGE_SORT: externalSort(list.elements(), 0, list.size()); break;
+            }
+        }
+
+        private void autoSort(int[] arr, int from, int to) {
+            lastAutoPlan = AdaptiveSort.sort(arr, from, to, token);
+        }
+
+        // Pasa el arreglo por disco con el ordenamiento externo. Los bloques son a lo ms la mitad
+        // de la coleccin para que siempre haya una mezcla que medir.
+        private void externalSort(int[] arr, int from, int to) {
+            externalStats = externalSort(arr, from, to, token);
+        }
+
+        private static ExternalSorter.Stats externalSort(int[] arr, int from, int to, CancellationToken token) {
+            int runElements = Math.max(1, Math.min(ExternalSorter.defaultRunElements(), (to - from + 1) / 2));
+            ExternalSorter sorter = new ExternalSorter(runElements, ExternalSorter.DEFAULT_FAN_IN,
+                                                       Paths.get(System.getProperty("java.io.tmpdir")));
+            try {
+                return sorter.sortArray(arr, from, to, token);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        
+      
+        
+        private static void bubbleSort(int[] arr, CancellationToken token) { 
+            int n = arr.length;
+            int checkMask = CancellationToken.quadraticCheckMask(n);
+            for (int i = 0; i < n - 1; i++) {
+                if ((i & checkMask) == 0) token.checkpoint(i, n - 1);
+                for (int j = 0; j < n - i - 1; j++) {
+                    if (arr[j] > arr[j + 1]) { swap(arr, j, j + 1); }
+                }
+            }
+        }
+
+        private static void selectionSort(int[] arr, CancellationToken token) { 
+            int n = arr.length;
+            int checkMask = CancellationToken.quadraticCheckMask(n);
+            for (int i = 0; i < n - 1; i++) {
+                if ((i & checkMask) == 0) token.checkpoint(i, n - 1);
+                int min_idx = i;
+                for (int j = i + 1; j < n; j++) {
+                    if (arr[j] < arr[min_idx]) { min_idx = j; }
+                }
+                swap(arr, min_idx, i);
+            }
+        }
+
+        private static void insertionSort(int[] arr, CancellationToken token) { 
+            int n = arr.length;
+            int checkMask = CancellationToken.quadraticCheckMask(n);
+            for (int i = 1; i < n; ++i) {
+                if ((i & checkMask) == 0) token.checkpoint(i, n);
+                int key = arr[i];
+                int j = i - 1;
+                while (j >= 0 && arr[j] > key) {
+                    arr[j + 1] = arr[j];
+                    j = j - 1;
+                }
+                arr[j + 1] = key;
+            }
+        }
+
+        private static void mergeSort(int[] arr, int l, int r, IntConsumer progress) { 
+            if (l < r) {
+                int m = (l + r) / 2;
+                mergeSort(arr, l, m, progress);
+                mergeSort(arr, m + 1, r, progress);
+                merge(arr, l, m, r);
+                progress.accept(r - l + 1);
+            }
+        }
+        private static void merge(int[] arr, int l, int m, int r) { 
+            int n1 = m - l + 1;
+            int n2 = r - m;
+            int[] L = new int[n1];
+            int[] R = new int[n2];
+            for (int i = 0; i < n1; ++i) L[i] = arr[l + i];
+            for (int j = 0; j < n2; ++j) R[j] = arr[m + 1 + j];
+            int i = 0, j = 0;
+            int k = l;
+            while (i < n1 && j < n2) {
+                if (L[i] <= R[j]) { arr[k] = L[i]; i++; } else { arr[k] = R[j]; j++; }
+                k++;
+            }
+            while (i < n1) { arr[k] = L[i]; i++; k++; }
+            while (j < n2) { arr[k] = R[j]; j++; k++; }
+        }
+
+        private void beginMergeProgress(int n) {
+            mergeProgress = newMergeProgress(n, token);
+        }
+
+        // Avance del merge sort secuencial: elementos mezclados sobre n * log2(n)
+        private static IntConsumer newMergeProgress(int n, CancellationToken token) {
+            long total = Math.max(1, (long) n * (32 - Integer.numberOfLeadingZeros(Math.max(n - 1, 1))));
+            long[] work = {0};
+            return merged -> {
+                work[0] += merged;
+                if (merged >= CancellationToken.MIN_CHECKED_RANGE) token.checkpoint(work[0], total);
+            };
+        }
+
+        private static void swap(int[] arr, int i, int j) {
+            int temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+
+       
+        private void bubbleSort(List<Integer> list) {
+            int n = list.size();
+            int checkMask = CancellationToken.quadraticCheckMask(n);
+            for (int i = 0; i < n - 1; i++) {
+                if ((i & checkMask) == 0) token.checkpoint(i, n - 1);
+                for (int j = 0; j < n - i - 1; j++) {
+                    if (list.get(j) > list.get(j + 1)) {
+                        Collections.swap(list, j, j + 1);
+                    }
+                }
+            }
+        }
+
+        private void selectionSort(List<Integer> list) {
+            int n = list.size();
+            int checkMask = CancellationToken.quadraticCheckMask(n);
+            for (int i = 0; i < n - 1; i++) {
+                if ((i & checkMask) == 0) token.checkpoint(i, n - 1);
+                int min_idx = i;
+                for (int j = i + 1; j < n; j++) {
+                    if (list.get(j) < list.get(min_idx)) {
+                        min_idx = j;
+                    }
+                }
+                Collections.swap(list, min_idx, i);
+            }
+        }
+
+        private void insertionSort(List<Integer> list) {
+            int n = list.size();
+            int checkMask = CancellationToken.quadraticCheckMask(n);
+            for (int i = 1; i < n; ++i) {
+                if ((i & checkMask) == 0) token.checkpoint(i, n);
+                int key = list.get(i);
+                int j = i - 1;
+                while (j >= 0 && list.get(j) > key) {
+                    list.set(j + 1, list.get(j));
+                    j = j - 1;
+                }
+                list.set(j + 1, key);
+            }
+        }
+
+        private void mergeSortList(List<Integer> list, int l, int r) {
+            if (l < r) {
+                int m = (l + r) / 2;
+                mergeSortList(list, l, m);
+                mergeSortList(list, m + 1, r);
+                mergeList(list, l, m, r);
+                mergeProgress.accept(r - l + 1);
+            }
+        }
+
+        private void mergeList(List<Integer> list, int l, int m, int r) {
+            List<Integer> temp = new ArrayList<>(r - l + 1);
+            int i = l, j = m + 1;
+
+            while (i <= m && j <= r) {
+                if (list.get(i) <= list.get(j)) {
+                    temp.add(list.get(i));
+                    i++;
+                } else {
+                    temp.add(list.get(j));
+                    j++;
+                }
+            }
+
+            while (i <= m) { temp.add(list.get(i)); i++; }
+            while (j <= r) { temp.add(list.get(j)); j++; }
+
+            for (int k = 0; k < temp.size(); k++) {
+                list.set(l + k, temp.get(k));
+            }
+        }
+
+        // IntList: mismas rutinas que la version List<Integer>, pero sin boxing
+        private void bubbleSort(IntList list) {
+            int n = list.size();
+            int checkMask = CancellationToken.quadraticCheckMask(n);
+            for (int i = 0; i < n - 1; i++) {
+                if ((i & checkMask) == 0) token.checkpoint(i, n - 1);
+                for (int j = 0; j < n - i - 1; j++) {
+                    if (list.get(j) > list.get(j + 1)) {
+                        list.swap(j, j + 1);
+                    }
+                }
+            }
+        }
+
+        private void selectionSort(IntList list) {
+            int n = list.size();
+            int checkMask = CancellationToken.quadraticCheckMask(n);
+            for (int i = 0; i < n - 1; i++) {
+                if ((i & checkMask) == 0) token.checkpoint(i, n - 1);
+                int min_idx = i;
+                for (int j = i + 1; j < n; j++) {
+                    if (list.get(j) < list.get(min_idx)) {
+                        min_idx = j;
+                    }
+                }
+                list.swap(min_idx, i);
+            }
+        }
+
+        private void insertionSort(IntList list) {
+            int n = list.size();
+            int checkMask = CancellationToken.quadraticCheckMask(n);
+            for (int i = 1; i < n; ++i) {
+                if ((i & checkMask) == 0) token.checkpoint(i, n);
+                int key = list.get(i);
+                int j = i - 1;
+                while (j >= 0 && list.get(j) > key) {
+                    list.set(j + 1, list.get(j));
+                    j = j - 1;
+                }
+                list.set(j + 1, key);
+            }
+        }
+
+        // temp se reserva una sola vez por ordenamiento
+        private void mergeSortIntList(IntList list, int[] temp, int l, int r) {
+            if (l < r) {
+                int m = (l + r) / 2;
+                mergeSortIntList(list, temp, l, m);
+                mergeSortIntList(list, temp, m + 1, r);
+                mergeIntList(list, temp, l, m, r);
+                mergeProgress.accept(r - l + 1);
+            }
+        }
+
+        private void mergeIntList(IntList list, int[] temp, int l, int m, int r) {
+            int i = l, j = m + 1, k = 0;
+
+            while (i <= m && j <= r) {
+                if (list.get(i) <= list.get(j)) {
+                    temp[k++] = list.get(i++);
+                } else {
+                    temp[k++] = list.get(j++);
+                }
+            }
+
+            while (i <= m) { temp[k++] = list.get(i++); }
+            while (j <= r) { temp[k++] = list.get(j++); }
+
+            for (int t = 0; t < k; t++) {
+                list.set(l + t, temp[t]);
+            }
+        }
+
+    }
+
+    // Counting sort por rango: min y max en una pasada y los conteos se desplazan por el minimo,
+    // asi funcionan negativos y rangos altos pero angostos. Los conteos viven en buffers por hilo
+    // que se reutilizan; con entradas grandes cada bloque cuenta en paralelo sobre su propio
+    // histograma y se suman al final. Si el rango es demasiado disperso conviene mas radix sort.
+    public static class CountingSort {
+        private static final int PARALLEL_THRESHOLD = 1 << 16;
+        private static final int MIN_CHUNK = 1 << 14;
+        // rango maximo que se acepta por elemento antes de caer a radix sort
+        private static final int SPARSE_FACTOR = 4;
+        private static final int MIN_DENSE_RANGE = 1 << 12;
+
+        private static final ThreadLocal<int[]> COUNTS = ThreadLocal.withInitial(() -> new int[0]);
+        private static final ThreadLocal<int[]> CHUNK_COUNTS = ThreadLocal.withInitial(() -> new int[0]);
+
+        // buffer de conteos del hilo, ya en ceros para [0, k)
+        private static int[] counts(ThreadLocal<int[]> pool, int k) {
+            int[] buffer = pool.get();
+            if (buffer.length < k) {
+                buffer = new int[k];
+                pool.set(buffer);
+            } else {
+                Arrays.fill(buffer, 0, k, 0);
+            }
+            return buffer;
+        }
+
+        static boolean isDense(long range, int n) {
+            return range <= Math.max((long) n * SPARSE_FACTOR, MIN_DENSE_RANGE);
+        }
+
+        public static void sort(int[] arr) {
+            sort(arr, 0, arr.length);
+        }
+
+        // ordena arr[from, to)
+        public static void sort(int[] arr, int from, int to) {
+            int n = to - from;
+            if (n < 2) return;
+
+            int min = arr[from], max = arr[from];
+            for (int i = from + 1; i < to; i++) {
+                int v = arr[i];
+                if (v < min) min = v; else if (v > max) max = v;
+            }
+            if (min == max) return;
+            long range = (long) max - min + 1;
+            if (!isDense(range, n)) {
+                RadixSort.sort(arr, from, to);
+                return;
+            }
+
+            int k = (int) range;
+            int[] count = counts(COUNTS, k);
+            if (n >= PARALLEL_THRESHOLD && k <= n / 4) {
+                countParallel(arr, from, to, min, count, k);
+            } else {
+                for (int i = from; i < to; i++) count[arr[i] - min]++;
+            }
+
+            int pos = from;
+            for (int d = 0; d < k; d++) {
+                int c = count[d];
+                if (c == 0) continue;
+                Arrays.fill(arr, pos, pos + c, d + min);
+                pos += c;
+            }
+        }
+
+        private static void countParallel(int[] arr, int from, int to, int min, int[] total, int k) {
+            int n = to - from;
+            int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, n / MIN_CHUNK));
+            int chunkSize = (n + chunks - 1) / chunks;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] local = counts(CHUNK_COUNTS, k);
+                int end = Math.min(to, from + (c + 1) * chunkSize);
+                for (int i = from + c * chunkSize; i < end; i++) local[arr[i] - min]++;
+                synchronized (total) {
+                    for (int d = 0; d < k; d++) total[d] += local[d];
+                }
+            });
+        }
+
+        // Version para List<Integer>: se cuenta recorriendo la lista y se reescribe en su lugar con set()
+        public static void sort(List<Integer> list) {
+            int n = list.size();
+            if (n < 2) return;
+
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (int v : list) {
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            if (min == max) return;
+            long range = (long) max - min + 1;
+            if (!isDense(range, n)) {
+                sortViaArray(list, RadixSort::sort);
+                return;
+            }
+
+            int k = (int) range;
+            int[] count = counts(COUNTS, k);
+            for (int v : list) count[v - min]++;
+
+            ListIterator<Integer> it = list.listIterator();
+            for (int d = 0; d < k; d++) {
+                Integer boxed = d + min;
+                for (int c = count[d]; c > 0; c--) {
+                    it.next();
+                    it.set(boxed);
+                }
+            }
+        }
+    }
+
+    // Merge sort paralelo con ForkJoin.
+    // Un solo buffer auxiliar por ordenamiento: los niveles alternan entre arr y buffer
+    // (ping-pong) asi que merge nunca reserva memoria, y los niveles de arriba mezclan en paralelo.
+    public static class ParallelMergeSort {
+        private static final int SEQUENTIAL_CUTOFF = 8192;
+        private static final int MERGE_CUTOFF = 8192;
+        private static final int INSERTION_CUTOFF = 32;
+
+        public static void sort(int[] arr) {
+            sort(arr, ForkJoinPool.commonPool());
+        }
+
+        public static void sort(int[] arr, ForkJoinPool pool) {
+            sort(arr, arr.length, pool);
+        }
+
+        // ordena arr[0, length)
+        public static void sort(int[] arr, int length) {
+            sort(arr, length, ForkJoinPool.commonPool());
+        }
+
+        public static void sort(int[] arr, int length, ForkJoinPool pool) {
+            sort(arr, length, pool, CancellationToken.NONE);
+        }
+
+        public static void sort(int[] arr, int length, CancellationToken token) {
+            sort(arr, length, ForkJoinPool.commonPool(), token);
+        }
+
+        public static void sort(int[] arr, int length, ForkJoinPool pool, CancellationToken token) {
+            if (length < 2) return;
+            int[] buffer = new int[length];
+            if (length <= SEQUENTIAL_CUTOFF) {
+                sortSequential(arr, buffer, 0, length, false);
+            } else {
+                pool.invoke(new SortAction(new Progress(token, length), arr, buffer, 0, length, false));
+            }
+        }
+
+        // Avance compartido por todas las subtareas: elementos mezclados sobre n * log2(n)
+        private static class Progress {
+            private final CancellationToken token;
+            private final LongAdder merged = new LongAdder();
+            private final long total;
+
+            Progress(CancellationToken token, int n) {
+                this.token = token;
+                this.total = (long) n * log2Ceil(n);
+            }
+
+            void add(long work) {
+                merged.add(work);
+            }
+
+            void checkpoint() {
+                if (token.isCancelled()) token.checkpoint(merged.sum(), total);
+            }
+        }
+
+        private static int log2Ceil(int n) {
+            return 32 - Integer.numberOfLeadingZeros(Math.max(n - 1, 1));
+        }
+
+        // Ordena src[lo, hi). Si intoBuffer es true el resultado queda en buffer[lo, hi), si no en src.
+        private static void sortSequential(int[] src, int[] buffer, int lo, int hi, boolean intoBuffer) {
+            if (hi - lo <= INSERTION_CUTOFF) {
+                insertionSort(src, lo, hi);
+                if (intoBuffer) System.arraycopy(src, lo, buffer, lo, hi - lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            sortSequential(src, buffer, lo, mid, !intoBuffer);
+            sortSequential(src, buffer, mid, hi, !intoBuffer);
+            if (intoBuffer) {
+                merge(src, lo, mid, mid, hi, buffer, lo);
+            } else {
+                merge(buffer, lo, mid, mid, hi, src, lo);
+            }
+        }
+
+        private static void insertionSort(int[] arr, int lo, int hi) {
+            for (int i = lo + 1; i < hi; i++) {
+                int key = arr[i];
+                int j = i - 1;
+                while (j >= lo && arr[j] > key) {
+                    arr[j + 1] = arr[j];
+                    j--;
+                }
+                arr[j + 1] = key;
+            }
+        }
+
+        private static void merge(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int k) {
+            int i = lo1, j = lo2;
+            while (i < hi1 && j < hi2) {
+                if (src[i] <= src[j]) { dst[k++] = src[i++]; } else { dst[k++] = src[j++]; }
+            }
+            while (i < hi1) { dst[k++] = src[i++]; }
+            while (j < hi2) { dst[k++] = src[j++]; }
+        }
+
+        // primer indice en [lo, hi) con arr[idx] >= key
+        private static int lowerBound(int[] arr, int lo, int hi, int key) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (arr[mid] < key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        private static class SortAction extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final Progress progress;
+            private final int[] src;
+            private final int[] buffer;
+            private final int lo;
+            private final int hi;
+            private final boolean intoBuffer;
+
+            SortAction(Progress progress, int[] src, int[] buffer, int lo, int hi, boolean intoBuffer) {
+                this.progress = progress;
+                this.src = src;
+                this.buffer = buffer;
+                this.lo = lo;
+                this.hi = hi;
+                this.intoBuffer = intoBuffer;
+            }
+
+            @Override
+            protected void compute() {
+                progress.checkpoint();
+                if (hi - lo <= SEQUENTIAL_CUTOFF) {
+                    sortSequential(src, buffer, lo, hi, intoBuffer);
+                    progress.add((long) (hi - lo) * log2Ceil(hi - lo));
+                    return;
+                }
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new SortAction(progress, src, buffer, lo, mid, !intoBuffer),
+                          new SortAction(progress, src, buffer, mid, hi, !intoBuffer));
+                if (intoBuffer) {
+                    new MergeAction(progress, src, lo, mid, mid, hi, buffer, lo).compute();
+                } else {
+                    new MergeAction(progress, buffer, lo, mid, mid, hi, src, lo).compute();
+                }
+            }
+        }
+
+        // Mezcla paralela: parte el rango mas grande por la mitad y busca el punto de corte en el otro.
+        private static class MergeAction extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final Progress progress;
+            private final int[] src;
+            private final int lo1, hi1, lo2, hi2;
+            private final int[] dst;
+            private final int k;
+
+            MergeAction(Progress progress, int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int k) {
+                this.progress = progress;
+                this.src = src;
+                this.lo1 = lo1;
+                this.hi1 = hi1;
+                this.lo2 = lo2;
+                this.hi2 = hi2;
+                this.dst = dst;
+                this.k = k;
+            }
+
+            @Override
+            protected void compute() {
+                int n1 = hi1 - lo1;
+                int n2 = hi2 - lo2;
+                if (n1 + n2 <= MERGE_CUTOFF) {
+                    merge(src, lo1, hi1, lo2, hi2, dst, k);
+                    progress.add(n1 + n2);
+                    return;
+                }
+                progress.checkpoint();
+                int m1, m2;
+                if (n1 >= n2) {
+                    m1 = (lo1 + hi1) >>> 1;
+                    m2 = lowerBound(src, lo2, hi2, src[m1]);
+                } else {
+                    m2 = (lo2 + hi2) >>> 1;
+                    m1 = lowerBound(src, lo1, hi1, src[m2]);
+                }
+                int rightK = k + (m1 - lo1) + (m2 - lo2);
+                invokeAll(new MergeAction(progress, src, lo1, m1, lo2, m2, dst, k),
+                          new MergeAction(progress, src, m1, hi1, m2, hi2, dst, rightK));
+            }
+        }
+    }
+
+    // Introsort iterativo: pila primitiva de rangos, pivote por mediana de tres (ninther en rangos
+    // grandes, sin Random compartido entre hilos), particion de tres vias para datos con muchos
+    // repetidos, insertion sort en rangos chicos y heapsort si la profundidad pasa de 2*log2(n).
+    public static class IntroSort {
+        private static final int INSERTION_CUTOFF = 24;
+        private static final int NINTHER_THRESHOLD = 128;
+
+        public static void sort(int[] arr) {
+            sort(arr, 0, arr.length);
+        }
+
+        // ordena arr[from, to)
+        public static void sort(int[] arr, int from, int to) {
+            sort(arr, from, to, CancellationToken.NONE);
+        }
+
+        // El avance es la fraccin de elementos que ya quedaron en su lugar final
+        public static void sort(int[] arr, int from, int to, CancellationToken token) {
+            if (to - from < 2) return;
+            long placed = 0;
+            // cada marco guarda lo, hi, profundidad; siempre se apila el lado grande,
+            // asi la pila nunca pasa de log2(n) marcos
+            int[] stack = new int[3 * 32];
+            int top = 0;
+            int lo = from, hi = to - 1;
+            int depth = depthLimit(to - from);
+
+            while (true) {
+                while (hi - lo + 1 > INSERTION_CUTOFF) {
+                    if (hi - lo + 1 >= CancellationToken.MIN_CHECKED_RANGE) token.checkpoint(placed, to - from);
+                    if (depth == 0) {
+                        heapSort(arr, lo, hi + 1);
+                        placed += hi - lo;
+                        lo = hi;
+                        break;
+                    }
+                    depth--;
+                    long bounds = partition(arr, lo, hi, arr[pivotIndex(arr, lo, hi)]);
+                    int lt = lessEnd(bounds), gt = greaterStart(bounds) - 1;
+
+                    placed += gt - lt + 1;
+                    if (lt - lo < hi - gt) {
+                        stack[top++] = gt + 1; stack[top++] = hi; stack[top++] = depth;
+                        hi = lt - 1;
+                    } else {
+                        stack[top++] = lo; stack[top++] = lt - 1; stack[top++] = depth;
+                        lo = gt + 1;
+                    }
+                }
+                insertionSort(arr, lo, hi);
+                placed += Math.max(hi - lo + 1, 0);
+
+                if (top == 0) break;
+                depth = stack[--top];
+                hi = stack[--top];
+                lo = stack[--top];
+            }
+        }
+
+        private static int depthLimit(int n) {
+            return 2 * (31 - Integer.numberOfLeadingZeros(n));
+        }
+
+        // Dutch flag sobre arr[lo, hi] (inclusivo): [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot.
+        // Regresa lt y gt + 1 empacados en un long; se leen con lessEnd() y greaterStart().
+        static long partition(int[] arr, int lo, int hi, int pivot) {
+            int lt = lo, gt = hi, i = lo;
+            while (i <= gt) {
+                int v = arr[i];
+                if (v < pivot) {
+                    arr[i++] = arr[lt];
+                    arr[lt++] = v;
+                } else if (v > pivot) {
+                    arr[i] = arr[gt];
+                    arr[gt--] = v;
+                } else {
+                    i++;
+                }
+            }
+            return (long) lt << 32 | (gt + 1);
+        }
+
+        // fin (exclusivo) de los menores al pivote
+        static int lessEnd(long bounds) {
+            return (int) (bounds >>> 32);
+        }
+
+        // inicio de los mayores al pivote
+        static int greaterStart(long bounds) {
+            return (int) bounds;
+        }
+
+        private static int pivotIndex(int[] arr, int lo, int hi) {
+            int mid = (lo + hi) >>> 1;
+            if (hi - lo + 1 >= NINTHER_THRESHOLD) {
+                int s = (hi - lo + 1) / 8;
+                int a = medianOfThree(arr, lo, lo + s, lo + 2 * s);
+                int b = medianOfThree(arr, mid - s, mid, mid + s);
+                int c = medianOfThree(arr, hi - 2 * s, hi - s, hi);
+                return medianOfThree(arr, a, b, c);
+            }
+            return medianOfThree(arr, lo, mid, hi);
+        }
+
+        private static int medianOfThree(int[] arr, int a, int b, int c) {
+            int x = arr[a], y = arr[b], z = arr[c];
+            if (x < y) {
+                if (y < z) return b;
+                return x < z ? c : a;
+            }
+            if (x < z) return a;
+            return y < z ? c : b;
+        }
+
+        // ordena arr[lo, hi] (inclusivo)
+        private static void insertionSort(int[] arr, int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                int key = arr[i];
+                int j = i - 1;
+                while (j >= lo && arr[j] > key) {
+                    arr[j + 1] = arr[j];
+                    j--;
+                }
+                arr[j + 1] = key;
+            }
+        }
+
+        // ordena arr[from, to)
+        private static void heapSort(int[] arr, int from, int to) {
+            int n = to - from;
+            for (int i = n / 2 - 1; i >= 0; i--) {
+                siftDown(arr, from, i, n);
+            }
+            for (int end = n - 1; end > 0; end--) {
+                int tmp = arr[from];
+                arr[from] = arr[from + end];
+                arr[from + end] = tmp;
+                siftDown(arr, from, 0, end);
+            }
+        }
+
+        private static void siftDown(int[] arr, int base, int i, int n) {
+            int val = arr[base + i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= n) break;
+                if (child + 1 < n && arr[base + child + 1] > arr[base + child]) child++;
+                if (arr[base + child] <= val) break;
+                arr[base + i] = arr[base + child];
+                i = child;
+            }
+            arr[base + i] = val;
+        }
+
+        // Misma logica sobre List<Integer> (solo get/set, sin Collections.swap)
+        public static void sort(List<Integer> list) {
+            sort(list, CancellationToken.NONE);
+        }
+
+        public static void sort(List<Integer> list, CancellationToken token) {
+            int n = list.size();
+            if (n < 2) return;
+            long placed = 0;
+            int[] stack = new int[3 * 32];
+            int top = 0;
+            int lo = 0, hi = n - 1;
+            int depth = depthLimit(n);
+
+            while (true) {
+                while (hi - lo + 1 > INSERTION_CUTOFF) {
+                    if (hi - lo + 1 >= CancellationToken.MIN_CHECKED_RANGE) token.checkpoint(placed, n);
+                    if (depth == 0) {
+                        heapSort(list, lo, hi + 1);
+                        placed += hi - lo;
+                        lo = hi;
+                        break;
+                    }
+                    depth--;
+                    long bounds = partition(list, lo, hi, list.get(pivotIndex(list, lo, hi)));
+                    int lt = lessEnd(bounds), gt = greaterStart(bounds) - 1;
+
+                    placed += gt - lt + 1;
+                    if (lt - lo < hi - gt) {
+                        stack[top++] = gt + 1; stack[top++] = hi; stack[top++] = depth;
+                        hi = lt - 1;
+                    } else {
+                        stack[top++] = lo; stack[top++] = lt - 1; stack[top++] = depth;
+                        lo = gt + 1;
+                    }
+                }
+                insertionSort(list, lo, hi);
+                placed += Math.max(hi - lo + 1, 0);
+
+                if (top == 0) break;
+                depth = stack[--top];
+                hi = stack[--top];
+                lo = stack[--top];
+            }
+        }
+
+        static long partition(List<Integer> list, int lo, int hi, int pivot) {
+            int lt = lo, gt = hi, i = lo;
+            while (i <= gt) {
+                int v = list.get(i);
+                if (v < pivot) {
+                    list.set(i++, list.get(lt));
+                    list.set(lt++, v);
+                } else if (v > pivot) {
+                    list.set(i, list.get(gt));
+                    list.set(gt--, v);
+                } else {
+                    i++;
+                }
+            }
+            return (long) lt << 32 | (gt + 1);
+        }
+
+        private static int pivotIndex(List<Integer> list, int lo, int hi) {
+            int mid = (lo + hi) >>> 1;
+            if (hi - lo + 1 >= NINTHER_THRESHOLD) {
+                int s = (hi - lo + 1) / 8;
+                int a = medianOfThree(list, lo, lo + s, lo + 2 * s);
+                int b = medianOfThree(list, mid - s, mid, mid + s);
+                int c = medianOfThree(list, hi - 2 * s, hi - s, hi);
+                return medianOfThree(list, a, b, c);
+            }
+            return medianOfThree(list, lo, mid, hi);
+        }
+
+        private static int medianOfThree(List<Integer> list, int a, int b, int c) {
+            int x = list.get(a), y = list.get(b), z = list.get(c);
+            if (x < y) {
+                if (y < z) return b;
+                return x < z ? c : a;
+            }
+            if (x < z) return a;
+            return y < z ? c : b;
+        }
+
+        private static void insertionSort(List<Integer> list, int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                int key = list.get(i);
+                int j = i - 1;
+                while (j >= lo && list.get(j) > key) {
+                    list.set(j + 1, list.get(j));
+                    j--;
+                }
+                list.set(j + 1, key);
+            }
+        }
+
+        private static void heapSort(List<Integer> list, int from, int to) {
+            int n = to - from;
+            for (int i = n / 2 - 1; i >= 0; i--) {
+                siftDown(list, from, i, n);
+            }
+            for (int end = n - 1; end > 0; end--) {
+                int tmp = list.get(from);
+                list.set(from, list.get(from + end));
+                list.set(from + end, tmp);
+                siftDown(list, from, 0, end);
+            }
+        }
+
+        private static void siftDown(List<Integer> list, int base, int i, int n) {
+            int val = list.get(base + i);
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= n) break;
+                if (child + 1 < n && list.get(base + child + 1) > list.get(base + child)) child++;
+                if (list.get(base + child) <= val) break;
+                list.set(base + i, list.get(base + child));
+                i = child;
+            }
+            list.set(base + i, val);
+        }
+    }
+
+    // Seleccin sin ordenar todo, con la particin de tres vas y el pivote de IntroSort:
+    //  - select: introselect, deja en k el elemento que ira ah ordenado, los menores o iguales antes
+    //    y los mayores o iguales despus (como nth_element). Solo se sigue el lado que contiene a k.
+    //  - selectAll: varios k en una pasada; cada particin reparte los k entre sus lados y solo se
+    //    bajan los lados que tienen alguno.
+    //  - partialSort: los k menores, ordenados, al principio del rango.
+    // Si la profundidad pasa de 2*log2(n) el rango que queda se ordena con heapsort.
+    public static class Selection {
+        private static final int INSERTION_CUTOFF = 16;
+
+        // regresa el elemento k de arr[from, to) en orden (k es ndice absoluto); arr queda reordenado,
+        // particionado alrededor de k, y solo el tramo que cae en heapsort queda ordenado
+        public static int select(int[] arr, int from, int to, int k) {
+            Objects.checkIndex(k - from, to - from);
+            int lo = from, hi = to - 1;
+            int depth = IntroSort.depthLimit(to - from);
+            while (hi - lo + 1 > INSERTION_CUTOFF) {
+                if (depth-- == 0) {
+                    IntroSort.heapSort(arr, lo, hi + 1);
+                    return arr[k];
+                }
+                long bounds = IntroSort.partition(arr, lo, hi, arr[IntroSort.pivotIndex(arr, lo, hi)]);
+                int lt = IntroSort.lessEnd(bounds), gt = IntroSort.greaterStart(bounds);
+                if (k < lt) {
+                    hi = lt - 1;
+                } else if (k >= gt) {
+                    lo = gt;
+                } else {
+                    return arr[k];
+                }
+            }
+            IntroSort.insertionSort(arr, lo, hi);
+            return arr[k];
+        }
+
+        public static int select(int[] arr, int k) {
+            return select(arr, 0, arr.length, k);
+        }
+
+        // Deja en su lugar final cada ndice de ks (absolutos, en cualquier orden)
+        public static void selectAll(int[] arr, int from, int to, int[] ks) {
+            int[] sorted = sortedIndexes(ks, from, to);
+            if (sorted.length == 0) return;
+            // cada marco: lo, hi (inclusivo), rango [kLo, kHi) de sorted, profundidad
+            int[] stack = new int[4 * 64];
+            int top = 0;
+            stack[top++] = from; stack[top++] = to - 1; stack[top++] = 0; stack[top++] = sorted.length;
+            int maxDepth = IntroSort.depthLimit(to - from);
+            int[] depths = new int[64];
+            depths[0] = maxDepth;
+            while (top > 0) {
+                int kHi = stack[--top], kLo = stack[--top], hi = stack[--top], lo = stack[--top];
+                int depth = depths[top / 4];
+                if (hi - lo + 1 <= INSERTION_CUTOFF) {
+                    IntroSort.insertionSort(arr, lo, hi);
+                    continue;
+                }
+                if (depth == 0) {
+                    IntroSort.heapSort(arr, lo, hi + 1);
+                    continue;
+                }
+                long bounds = IntroSort.partition(arr, lo, hi, arr[IntroSort.pivotIndex(arr, lo, hi)]);
+                int lt = IntroSort.lessEnd(bounds), gt = IntroSort.greaterStart(bounds);
+                // los k en [lt, gt) ya quedaron en su lugar (son iguales al pivote)
+                int leftEnd = lowerBound(sorted, kLo, kHi, lt);
+                int rightStart = lowerBound(sorted, leftEnd, kHi, gt);
+                if (leftEnd > kLo) {
+                    depths[top / 4] = depth - 1;
+                    stack[top++] = lo; stack[top++] = lt - 1; stack[top++] = kLo; stack[top++] = leftEnd;
+                }
+                if (kHi > rightStart) {
+                    depths[top / 4] = depth - 1;
+                    stack[top++] = gt; stack[top++] = hi; stack[top++] = rightStart; stack[top++] = kHi;
+                }
+            }
+        }
+
+        // Valores en los percentiles pedidos (rango ms cercano, en [0, 100]); reordena arr
+        public static int[] percentiles(int[] arr, double... percentiles) {
+            int[] ks = percentileIndexes(arr.length, percentiles);
+            selectAll(arr, 0, arr.length, ks);
+            int[] values = new int[ks.length];
+            for (int i = 0; i < ks.length; i++) values[i] = arr[ks[i]];
+            return values;
+        }
+
+        // los k menores de arr[from, to), ordenados, en arr[from, from + k)
+        public static void partialSort(int[] arr, int from, int to, int k) {
+            if (k <= 0) return;
+            if (k < to - from) select(arr, from, to, from + k - 1);
+            IntroSort.sort(arr, from, Math.min(to, from + k));
+        }
+
+        public static int select(IntList list, int k) {
+            return select(list.elements(), 0, list.size(), k);
+        }
+
+        public static void selectAll(IntList list, int[] ks) {
+            selectAll(list.elements(), 0, list.size(), ks);
+        }
+
+        public static int[] percentiles(IntList list, double... percentiles) {
+            int[] ks = percentileIndexes(list.size(), percentiles);
+            selectAll(list.elements(), 0, list.size(), ks);
+            int[] values = new int[ks.length];
+            for (int i = 0; i < ks.length; i++) values[i] = list.get(ks[i]);
+            return values;
+        }
+
+        public static void partialSort(IntList list, int k) {
+            partialSort(list.elements(), 0, list.size(), k);
+        }
+
+        // Misma lgica sobre List<Integer> (solo get/set)
+        public static int select(List<Integer> list, int k) {
+            int n = list.size();
+            Objects.checkIndex(k, n);
+            int lo = 0, hi = n - 1;
+            int depth = IntroSort.depthLimit(n);
+            while (hi - lo + 1 > INSERTION_CUTOFF) {
+                if (depth-- == 0) {
+                    IntroSort.heapSort(list, lo, hi + 1);
+                    return list.get(k);
+                }
+                long bounds = IntroSort.partition(list, lo, hi, list.get(IntroSort.pivotIndex(list, lo, hi)));
+                int lt = IntroSort.lessEnd(bounds), gt = IntroSort.greaterStart(bounds);
+                if (k < lt) {
+                    hi = lt - 1;
+                } else if (k >= gt) {
+                    lo = gt;
+                } else {
+                    return list.get(k);
+                }
+            }
+            IntroSort.insertionSort(list, lo, hi);
+            return list.get(k);
+        }
+
+        public static void selectAll(List<Integer> list, int[] ks) {
+            int n = list.size();
+            int[] sorted = sortedIndexes(ks, 0, n);
+            if (sorted.length == 0) return;
+            int[] stack = new int[4 * 64];
+            int top = 0;
+            stack[top++] = 0; stack[top++] = n - 1; stack[top++] = 0; stack[top++] = sorted.length;
+            int[] depths = new int[64];
+            depths[0] = IntroSort.depthLimit(n);
+            while (top > 0) {
+                int kHi = stack[--top], kLo = stack[--top], hi = stack[--top], lo = stack[--top];
+                int depth = depths[top / 4];
+                if (hi - lo + 1 <= INSERTION_CUTOFF) {
+                    IntroSort.insertionSort(list, lo, hi);
+                    continue;
+                }
+                if (depth == 0) {
+                    IntroSort.heapSort(list, lo, hi + 1);
+                    continue;
+                }
+                long bounds = IntroSort.partition(list, lo, hi, list.get(IntroSort.pivotIndex(list, lo, hi)));
+                int lt = IntroSort.lessEnd(bounds), gt = IntroSort.greaterStart(bounds);
+                int leftEnd = lowerBound(sorted, kLo, kHi, lt);
+                int rightStart = lowerBound(sorted, leftEnd, kHi, gt);
+                if (leftEnd > kLo) {
+                    depths[top / 4] = depth - 1;
+                    stack[top++] = lo; stack[top++] = lt - 1; stack[top++] = kLo; stack[top++] = leftEnd;
+                }
+                if (kHi > rightStart) {
+                    depths[top / 4] = depth - 1;
+                    stack[top++] = gt; stack[top++] = hi; stack[top++] = rightStart; stack[top++] = kHi;
+                }
+            }
+        }
+
+        public static int[] percentiles(List<Integer> list, double... percentiles) {
+            int[] ks = percentileIndexes(list.size(), percentiles);
+            selectAll(list, ks);
+            int[] values = new int[ks.length];
+            for (int i = 0; i < ks.length; i++) values[i] = list.get(ks[i]);
+            return values;
+        }
+
+        // los k menores, ordenados, al principio de la lista
+        public static void partialSort(List<Integer> list, int k) {
+            int n = list.size();
+            if (k <= 0) return;
+            if (k < n) select(list, k - 1);
+            IntroSort.sort(list.subList(0, Math.min(k, n)));
+        }
+
+        // ndice del percentil p por rango ms cercano: ceil(p / 100 * n) - 1
+        public static int[] percentileIndexes(int n, double... percentiles) {
+            if (n == 0) throw new IllegalArgumentException("No hay percentiles de una coleccin vaca");
+            int[] ks = new int[percentiles.length];
+            for (int i = 0; i < percentiles.length; i++) {
+                double p = percentiles[i];
+                if (!(p >= 0 && p <= 100)) throw new IllegalArgumentException("Percentil fuera de [0, 100]: " + p);
+                ks[i] = Math.max(0, (int) Math.ceil(p / 100.0 * n) - 1);
+            }
+            return ks;
+        }
+
+        // copia ordenada y sin repetidos de ks, validando que estn en [from, to)
+        private static int[] sortedIndexes(int[] ks, int from, int to) {
+            int[] sorted = ks.clone();
+            for (int k : sorted) Objects.checkIndex(k - from, to - from);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (distinct == 0 || sorted[i] != sorted[distinct - 1]) sorted[distinct++] = sorted[i];
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+
+        // primer ndice en [lo, hi) con sorted[idx] >= key
+        private static int lowerBound(int[] sorted, int lo, int hi, int key) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sorted[mid] < key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    // Ordenamiento de registros por clave primitiva. List.sort(Comparator) hace una llamada virtual y
+    // sigue un puntero por comparacin; aqu las claves se extraen una vez a un long[] junto con un
+    // int[] de ndices, los pares se ordenan con radix sort LSD (8 bits por pasada, saltando los
+    // dgitos que comparten todas las claves, igual que RadixSort) y la permutacin resultante se
+    // aplica a los registros en una sola pasada. Es estable, como List.sort. Las claves double pasan
+    // a long con una transformacin de bits que respeta el orden de Double.compare.
+    public static class KeySort {
+        private static final int BITS = 8;
+        private static final int RADIX = 1 << BITS;
+        private static final int MASK = RADIX - 1;
+        private static final int PASSES = Long.SIZE / BITS;
+        private static final int INSERTION_CUTOFF = 32;
+
+        // Bits de d como long con signo en el orden de Double.compare: los negativos invierten todo
+        // menos el signo, as -0.0 < 0.0 y NaN (cannico) queda despus de +infinito.
+        public static long sortableBits(double d) {
+            long bits = Double.doubleToLongBits(d);
+            return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+
+        public static double fromSortableBits(long bits) {
+            return Double.longBitsToDouble(bits ^ ((bits >> 63) & Long.MAX_VALUE));
+        }
+
+        private static int digit(long key, int shift) {
+            return (int) ((key ^ Long.MIN_VALUE) >>> shift) & MASK;
+        }
+
+        // permutacin que ordena keys (order[i] = ndice del i-simo menor); keys no se modifica
+        public static int[] sortedOrder(long[] keys) {
+            long[] copy = keys.clone();
+            int[] order = identity(copy.length);
+            sortPairs(copy, order);
+            return order;
+        }
+
+        public static int[] sortedOrder(double[] keys) {
+            long[] bits = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) bits[i] = sortableBits(keys[i]);
+            int[] order = identity(bits.length);
+            sortPairs(bits, order);
+            return order;
+        }
+
+        public static <T> int[] sortedOrder(List<? extends T> records, ToLongFunction<? super T> key) {
+            long[] keys = new long[records.size()];
+            int i = 0;
+            for (T record : records) keys[i++] = key.applyAsLong(record);
+            int[] order = identity(keys.length);
+            sortPairs(keys, order);
+            return order;
+        }
+
+        public static <T> int[] sortedOrderByDouble(List<? extends T> records, ToDoubleFunction<? super T> key) {
+            long[] keys = new long[records.size()];
+            int i = 0;
+            for (T record : records) keys[i++] = sortableBits(key.applyAsDouble(record));
+            int[] order = identity(keys.length);
+            sortPairs(keys, order);
+            return order;
+        }
+
+        public static <T> void sortByLong(List<T> records, ToLongFunction<? super T> key) {
+            applyPermutation(records, sortedOrder(records, key));
+        }
+
+        public static <T> void sortByDouble(List<T> records, ToDoubleFunction<? super T> key) {
+            applyPermutation(records, sortedOrderByDouble(records, key));
+        }
+
+        public static <T> void sortByLong(T[] records, ToLongFunction<? super T> key) {
+            applyPermutation(records, sortedOrder(Arrays.asList(records), key));
+        }
+
+        public static <T> void sortByDouble(T[] records, ToDoubleFunction<? super T> key) {
+            applyPermutation(records, sortedOrderByDouble(Arrays.asList(records), key));
+        }
+
+        // records[i] = records original[order[i]], en una pasada sobre una copia de las referencias
+        @SuppressWarnings("unchecked")
+        public static <T> void applyPermutation(List<T> records, int[] order) {
+            Object[] original = records.toArray();
+            ListIterator<T> it = records.listIterator();
+            for (int index : order) {
+                it.next();
+                it.set((T) original[index]);
+            }
+        }
+
+        public static <T> void applyPermutation(T[] records, int[] order) {
+            T[] original = records.clone();
+            for (int i = 0; i < order.length; i++) records[i] = original[order[i]];
+        }
+
+        private static int[] identity(int n) {
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) order[i] = i;
+            return order;
+        }
+
+        // Ordena keys y lleva index con ellas; estable
+        static void sortPairs(long[] keys, int[] index) {
+            int n = keys.length;
+            if (n <= INSERTION_CUTOFF) {
+                insertionSort(keys, index);
+                return;
+            }
+
+            // los histogramas de las 8 pasadas salen de una sola lectura
+            int[] counts = new int[PASSES * RADIX];
+            for (long k : keys) {
+                for (int p = 0; p < PASSES; p++) {
+                    counts[p * RADIX + digit(k, p * BITS)]++;
+                }
+            }
+
+            long[] srcKeys = keys, dstKeys = null;
+            int[] srcIndex = index, dstIndex = null;
+            int[] offsets = new int[RADIX];
+            for (int p = 0; p < PASSES; p++) {
+                int shift = p * BITS;
+                int base = p * RADIX;
+                if (counts[base + digit(srcKeys[0], shift)] == n) continue;
+                if (dstKeys == null) {
+                    dstKeys = new long[n];
+                    dstIndex = new int[n];
+                }
+
+                int running = 0;
+                for (int d = 0; d < RADIX; d++) {
+                    offsets[d] = running;
+                    running += counts[base + d];
+                }
+                for (int i = 0; i < n; i++) {
+                    long k = srcKeys[i];
+                    int pos = offsets[digit(k, shift)]++;
+                    dstKeys[pos] = k;
+                    dstIndex[pos] = srcIndex[i];
+                }
+
+                long[] tk = srcKeys; srcKeys = dstKeys; dstKeys = tk;
+                int[] ti = srcIndex; srcIndex = dstIndex; dstIndex = ti;
+            }
+            if (srcKeys != keys) {
+                System.arraycopy(srcKeys, 0, keys, 0, n);
+                System.arraycopy(srcIndex, 0, index, 0, n);
+            }
+        }
+
+        private static void insertionSort(long[] keys, int[] index) {
+            for (int i = 1; i < keys.length; i++) {
+                long k = keys[i];
+                int idx = index[i];
+                int j = i - 1;
+                while (j >= 0 && keys[j] > k) {
+                    keys[j + 1] = keys[j];
+                    index[j + 1] = index[j];
+                    j--;
+                }
+                keys[j + 1] = k;
+                index[j + 1] = idx;
+            }
+        }
+    }
+
+    // Registro de ejemplo para KeySort: una marca de tiempo long y un puntaje double sacados de los
+    // valores de una DataCollection (el puntaje puede ser negativo y tiene decimales).
+    public static final class KeyedRecord {
+        private static final long BASE_EPOCH_MILLIS = 1_700_000_000_000L;
+
+        public final int id;
+        public final long timestamp;
+        public final double score;
+
+        public KeyedRecord(int id, long timestamp, double score) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.score = score;
+        }
+
+        public static List<KeyedRecord> fromCollection(DataCollection collection) {
+            int n = collection.size();
+            List<KeyedRecord> records = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                int value = collection.get(i);
+                records.add(new KeyedRecord(i, BASE_EPOCH_MILLIS + value * 1000L, (value - n / 2) / 7.0));
+            }
+            return records;
+        }
+    }
+
+    // Radix sort LSD con digitos de 8 bits (4 pasadas).
+    // Un buffer auxiliar por hilo que se reutiliza entre ordenamientos; las pasadas donde todos
+    // los elementos comparten el mismo digito se saltan. El bit de signo se invierte en el
+    // digito alto para que los negativos tambien queden en orden.
+    public static class RadixSort {
+        private static final int BITS = 8;
+        private static final int RADIX = 1 << BITS;
+        private static final int MASK = RADIX - 1;
+        private static final int PASSES = Integer.SIZE / BITS;
+        private static final int PARALLEL_THRESHOLD = 1 << 16;
+        private static final int MIN_CHUNK = 1 << 14;
+
+        // Buffer auxiliar por hilo. Los hilos del pool comn tambin llegan aqu (cubetas del sample
+        // sort, AUTO) y viven lo que la JVM: arriba de MAX_RETAINED_SCRATCH se reserva por llamada
+        // en lugar de dejar 40 MB colgados de cada hilo despus de un arreglo de 10 millones.
+        private static final int MAX_RETAINED_SCRATCH = 1 << 20;
+        private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+        private static int[] scratch(int n) {
+            if (n > MAX_RETAINED_SCRATCH) return new int[n];
+            int[] buffer = SCRATCH.get();
+            if (buffer.length < n) {
+                buffer = new int[n];
+                SCRATCH.set(buffer);
+            }
+            return buffer;
+        }
+
+        private static int digit(int value, int shift) {
+            return ((value ^ Integer.MIN_VALUE) >>> shift) & MASK;
+        }
+
+        public static void sort(int[] arr) {
+            sort(arr, 0, arr.length);
+        }
+
+        // ordena arr[from, to)
+        public static void sort(int[] arr, int from, int to) {
+            int n = to - from;
+            if (n < 2) return;
+
+            // los histogramas de las 4 pasadas salen de una sola lectura
+            int[] counts = new int[PASSES * RADIX];
+            for (int i = from; i < to; i++) {
+                int v = arr[i];
+                for (int p = 0; p < PASSES; p++) {
+                    counts[p * RADIX + digit(v, p * BITS)]++;
+                }
+            }
+
+            int[] src = arr, dst = scratch(n);
+            int srcOff = from, dstOff = 0;
+            int[] offsets = new int[RADIX];
+            for (int p = 0; p < PASSES; p++) {
+                int shift = p * BITS;
+                int base = p * RADIX;
+                if (counts[base + digit(arr[from], shift)] == n) continue;
+
+                int running = 0;
+                for (int d = 0; d < RADIX; d++) {
+                    offsets[d] = running;
+                    running += counts[base + d];
+                }
+                for (int i = 0; i < n; i++) {
+                    int v = src[srcOff + i];
+                    dst[dstOff + offsets[digit(v, shift)]++] = v;
+                }
+
+                int[] t = src; src = dst; dst = t;
+                int o = srcOff; srcOff = dstOff; dstOff = o;
+            }
+            if (src != arr) System.arraycopy(src, srcOff, arr, from, n);
+        }
+
+        public static void parallelSort(int[] arr) {
+            parallelSort(arr, 0, arr.length);
+        }
+
+        // Version paralela: en cada pasada cada bloque arma su histograma, los desplazamientos
+        // se calculan por (digito, bloque) y los bloques dispersan al mismo tiempo sin chocar.
+        public static void parallelSort(int[] arr, int from, int to) {
+            int n = to - from;
+            if (n < PARALLEL_THRESHOLD) {
+                sort(arr, from, to);
+                return;
+            }
+            int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, n / MIN_CHUNK));
+            int chunkSize = (n + chunks - 1) / chunks;
+            int[][] chunkCounts = new int[chunks][PASSES * RADIX];
+
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] local = chunkCounts[c];
+                int end = Math.min(to, from + (c + 1) * chunkSize);
+                for (int i = from + c * chunkSize; i < end; i++) {
+                    int v = arr[i];
+                    for (int p = 0; p < PASSES; p++) {
+                        local[p * RADIX + digit(v, p * BITS)]++;
+                    }
+                }
+            });
+            int[] counts = new int[PASSES * RADIX];
+            for (int[] local : chunkCounts) {
+                for (int i = 0; i < counts.length; i++) counts[i] += local[i];
+            }
+
+            int[] src = arr, dst = scratch(n);
+            int srcOff = from, dstOff = 0;
+            int[][] offsets = new int[chunks][RADIX];
+            for (int p = 0; p < PASSES; p++) {
+                final int shift = p * BITS;
+                if (counts[p * RADIX + digit(arr[from], shift)] == n) continue;
+
+                final int[] in = src, out = dst;
+                final int inOff = srcOff, outOff = dstOff;
+                IntStream.range(0, chunks).parallel().forEach(c -> {
+                    int[] local = offsets[c];
+                    Arrays.fill(local, 0);
+                    int end = Math.min(n, (c + 1) * chunkSize);
+                    for (int i = c * chunkSize; i < end; i++) {
+                        local[digit(in[inOff + i], shift)]++;
+                    }
+                });
+                int running = 0;
+                for (int d = 0; d < RADIX; d++) {
+                    for (int c = 0; c < chunks; c++) {
+                        int count = offsets[c][d];
+                        offsets[c][d] = running;
+                        running += count;
+                    }
+                }
+                IntStream.range(0, chunks).parallel().forEach(c -> {
+                    int[] local = offsets[c];
+                    int end = Math.min(n, (c + 1) * chunkSize);
+                    for (int i = c * chunkSize; i < end; i++) {
+                        int v = in[inOff + i];
+                        out[outOff + local[digit(v, shift)]++] = v;
+                    }
+                });
+
+                int[] t = src; src = dst; dst = t;
+                int o = srcOff; srcOff = dstOff; dstOff = o;
+            }
+            if (src != arr) System.arraycopy(src, srcOff, arr, from, n);
+        }
+    }
+
+    // Sample sort paralelo para un solo arreglo grande. Los separadores salen de una sobremuestra
+    // ordenada; cada bloque clasifica sus elementos con bsqueda binaria sobre los separadores y
+    // guarda la cubeta de cada uno, los desplazamientos se calculan por (cubeta, bloque) como en el
+    // radix paralelo, y todos los bloques dispersan a la vez a un solo buffer. Luego las cubetas se
+    // ordenan al mismo tiempo con RadixSort (IntroSort si son chicas) y se copian de regreso.
+    // Cada separador tiene adems una cubeta de iguales que no hace falta ordenar, as los datos
+    // con muchos repetidos no se amontonan en una sola cubeta.
+    public static class SampleSort {
+        public static final int PARALLEL_THRESHOLD = 1 << 15;
+        private static final int BUCKETS_PER_THREAD = 8;
+        private static final int MAX_SPLITTERS = 1 << 12; // 2 * MAX_SPLITTERS + 1 cubetas caben en un short
+        private static final int OVERSAMPLING = 16;
+        private static final int MIN_CHUNK = 1 << 14;
+        private static final int SMALL_BUCKET = 1 << 10;
+
+        public static void sort(int[] arr) {
+            sort(arr, 0, arr.length, ForkJoinPool.commonPool(), CancellationToken.NONE);
+        }
+
+        public static void sort(int[] arr, int from, int to, CancellationToken token) {
+            sort(arr, from, to, ForkJoinPool.commonPool(), token);
+        }
+
+        // ordena arr[from, to) con los hilos de pool. El avance es la fraccin de las tres fases
+        // (clasificar, dispersar, ordenar cubetas) ya hecha.
+        public static void sort(int[] arr, int from, int to, ForkJoinPool pool, CancellationToken token) {
+            int n = to - from;
+            if (n < PARALLEL_THRESHOLD) {
+                RadixSort.sort(arr, from, to);
+                return;
+            }
+            int threads = pool.getParallelism();
+            int[] splitters = chooseSplitters(arr, from, to, Math.min(MAX_SPLITTERS, threads * BUCKETS_PER_THREAD - 1));
+            int buckets = 2 * splitters.length + 1;
+            int chunks = Math.max(1, Math.min(threads * 4, n / MIN_CHUNK));
+            int chunkSize = (n + chunks - 1) / chunks;
+            LongAdder done = new LongAdder();
+            long total = 3L * n;
+
+            // 1. clasificacin: cubeta de cada elemento y conteo por (bloque, cubeta)
+            short[] oracle = new short[n];
+            int[][] counts = new int[chunks][buckets];
+            forEach(pool, chunks, c -> {
+                if (token.isCancelled()) token.checkpoint(done.sum(), total);
+                int[] local = counts[c];
+                int start = c * chunkSize, end = Math.min(n, start + chunkSize);
+                for (int i = start; i < end; i++) {
+                    int b = classify(splitters, arr[from + i]);
+                    oracle[i] = (short) b;
+                    local[b]++;
+                }
+                done.add(end - start);
+            });
+
+            // los conteos se vuelven la posicin donde cada bloque escribe su parte de cada cubeta
+            int[] bucketStart = new int[buckets + 1];
+            int running = 0;
+            for (int b = 0; b < buckets; b++) {
+                bucketStart[b] = running;
+                for (int c = 0; c < chunks; c++) {
+                    int count = counts[c][b];
+                    counts[c][b] = running;
+                    running += count;
+                }
+            }
+            bucketStart[buckets] = running;
+
+            // 2. dispersin: cada bloque copia sus elementos a su lugar en el buffer
+            int[] buffer = new int[n];
+            forEach(pool, chunks, c -> {
+                if (token.isCancelled()) token.checkpoint(done.sum(), total);
+                int[] next = counts[c];
+                int start = c * chunkSize, end = Math.min(n, start + chunkSize);
+                for (int i = start; i < end; i++) {
+                    buffer[next[oracle[i]]++] = arr[from + i];
+                }
+                done.add(end - start);
+            });
+
+            // 3. cada cubeta se ordena y regresa a arr; las cubetas de iguales (impares) ya estn listas
+            forEach(pool, buckets, b -> {
+                int lo = bucketStart[b], hi = bucketStart[b + 1];
+                if (lo == hi) return;
+                if (token.isCancelled()) token.checkpoint(done.sum(), total);
+                if ((b & 1) == 0) {
+                    if (hi - lo >= SMALL_BUCKET) {
+                        RadixSort.sort(buffer, lo, hi);
+                    } else {
+                        IntroSort.sort(buffer, lo, hi);
+                    }
+                }
+                System.arraycopy(buffer, lo, arr, from + lo, hi - lo);
+                done.add(hi - lo);
+            });
+        }
+
+        // Hasta wanted separadores distintos, tomados a intervalos iguales de una muestra ordenada
+        private static int[] chooseSplitters(int[] arr, int from, int to, int wanted) {
+            int n = to - from;
+            int sampleSize = Math.min(n, (wanted + 1) * OVERSAMPLING);
+            int[] sample = new int[sampleSize];
+            SplittableRandom random = new SplittableRandom(n);
+            for (int i = 0; i < sampleSize; i++) {
+                sample[i] = arr[from + random.nextInt(n)];
+            }
+            IntroSort.sort(sample);
+            IntList splitters = new IntList(wanted);
+            for (int s = 1; s <= wanted; s++) {
+                int v = sample[(int) ((long) s * sampleSize / (wanted + 1))];
+                if (splitters.isEmpty() || splitters.get(splitters.size() - 1) != v) splitters.add(v);
+            }
+            return splitters.toArray();
+        }
+
+        // cubeta 2i: entre los separadores i - 1 e i; cubeta 2i + 1: igual al separador i
+        private static int classify(int[] splitters, int v) {
+            int lo = 0, hi = splitters.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (splitters[mid] < v) lo = mid + 1; else hi = mid;
+            }
+            return lo < splitters.length && splitters[lo] == v ? 2 * lo + 1 : 2 * lo;
+        }
+
+        private static void forEach(ForkJoinPool pool, int count, IntConsumer body) {
+            pool.invoke(new ForEachAction(body, 0, count));
+        }
+
+        // Corre body(i) para cada i en [lo, hi), partiendo el rango a la mitad entre los hilos del pool
+        private static class ForEachAction extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final IntConsumer body;
+            private final int lo;
+            private final int hi;
+
+            ForEachAction(IntConsumer body, int lo, int hi) {
+                this.body = body;
+                this.lo = lo;
+                this.hi = hi;
+            }
+
+            @Override
+            protected void compute() {
+                if (hi - lo == 1) {
+                    body.accept(lo);
+                    return;
+                }
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ForEachAction(body, lo, mid), new ForEachAction(body, mid, hi));
+            }
+        }
+    }
+
+    // Redes de ordenamiento para arreglos chicos. Cada comparador es un compare-exchange sin
+    // saltos (Math.min/Math.max, que el JIT compila a cmov), as el costo no depende de los datos.
+    // Las redes son las de Batcher (odd-even merge) para cada tamao de 2 a 32; arriba de eso se
+    // ordenan bloques de 32 con la red y se mezclan de abajo hacia arriba.
+    public static class SortingNetworks {
+        public static final int MAX_NETWORK_SIZE = 32;
+        private static final int MIN_PARALLEL_ELEMENTS = 1 << 15;
+
+        // NETWORK_LO[n][c] < NETWORK_HI[n][c] son los ndices del comparador c de la red de tamao n
+        private static final int[][] NETWORK_LO = new int[MAX_NETWORK_SIZE + 1][];
+        private static final int[][] NETWORK_HI = new int[MAX_NETWORK_SIZE + 1][];
+        // buffer de mezcla por hilo; los rangos ms grandes que esto reservan el suyo y no se guarda
+        private static final int MAX_RETAINED_SCRATCH = 1 << 20;
+        private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+        static {
+            for (int n = 0; n <= MAX_NETWORK_SIZE; n++) {
+                IntList lo = new IntList(), hi = new IntList();
+                for (int p = 1; p < n; p <<= 1) {
+                    for (int k = p; k >= 1; k >>= 1) {
+                        for (int j = k % p; j + k < n; j += 2 * k) {
+                            for (int i = 0; i < Math.min(k, n - j - k); i++) {
+                                if ((i + j) / (2 * p) == (i + j + k) / (2 * p)) {
+                                    lo.add(i + j);
+                                    hi.add(i + j + k);
+                                }
+                            }
+                        }
+                    }
+                }
+                NETWORK_LO[n] = lo.toArray();
+                NETWORK_HI[n] = hi.toArray();
+            }
+        }
+
+        public static int comparators(int n) {
+            return NETWORK_LO[n].length;
+        }
+
+        public static void sort(int[] arr) {
+            sort(arr, 0, arr.length);
+        }
+
+        // ordena arr[from, to)
+        public static void sort(int[] arr, int from, int to) {
+            int n = to - from;
+            if (n <= MAX_NETWORK_SIZE) {
+                network(arr, from, n);
+                return;
+            }
+            for (int block = from; block < to; block += MAX_NETWORK_SIZE) {
+                network(arr, block, Math.min(MAX_NETWORK_SIZE, to - block));
+            }
+            int[] buffer;
+            if (n > MAX_RETAINED_SCRATCH) {
+                buffer = new int[n];
+            } else {
+                buffer = SCRATCH.get();
+                if (buffer.length < n) {
+                    buffer = new int[n];
+                    SCRATCH.set(buffer);
+                }
+            }
+            int[] src = arr, dst = buffer;
+            int srcOff = from, dstOff = 0;
+            for (int width = MAX_NETWORK_SIZE; width < n; width <<= 1) {
+                for (int lo = 0; lo < n; lo += 2 * width) {
+                    int mid = Math.min(lo + width, n);
+                    int hi = Math.min(lo + 2 * width, n);
+                    merge(src, srcOff + lo, srcOff + mid, srcOff + hi, dst, dstOff + lo);
+                }
+                int[] tmp = src; src = dst; dst = tmp;
+                int off = srcOff; srcOff = dstOff; dstOff = off;
+            }
+            if (src != arr) System.arraycopy(src, 0, arr, from, n);
+        }
+
+        // Lote: ordena cada arreglo por separado, repartiendo los arreglos entre los ncleos
+        public static void sortAll(int[][] arrays) {
+            long elements = 0;
+            for (int[] a : arrays) elements += a.length;
+            IntStream indexes = IntStream.range(0, arrays.length);
+            if (elements >= MIN_PARALLEL_ELEMENTS) indexes = indexes.parallel();
+            indexes.forEach(i -> sort(arrays[i]));
+        }
+
+        public static void sortAllSequential(int[][] arrays) {
+            for (int[] a : arrays) sort(a);
+        }
+
+        private static void network(int[] arr, int from, int n) {
+            int[] lo = NETWORK_LO[n];
+            int[] hi = NETWORK_HI[n];
+            for (int c = 0; c < lo.length; c++) {
+                int i = from + lo[c], j = from + hi[c];
+                int a = arr[i], b = arr[j];
+                arr[i] = Math.min(a, b);
+                arr[j] = Math.max(a, b);
+            }
+        }
+
+        // mezcla sin saltos: el ndice que avanza se calcula con el resultado de la comparacin
+        private static void merge(int[] src, int lo, int mid, int hi, int[] dst, int out) {
+            int i = lo, j = mid;
+            while (i < mid && j < hi) {
+                int a = src[i], b = src[j];
+                int takeRight = b < a ? 1 : 0;
+                dst[out++] = takeRight == 1 ? b : a;
+                j += takeRight;
+                i += 1 - takeRight;
+            }
+            System.arraycopy(src, i, dst, out, mid - i);
+            out += mid - i;
+            System.arraycopy(src, j, dst, out, hi - j);
+        }
+    }
+
+    // Kernels SIMD con la Vector API (jdk.incubator.vector; la JVM necesita
+    // --add-modules jdk.incubator.vector). Quicksort: la particin compara un vector completo contra
+    // el pivote y compacta los carriles menores detrs del cursor de lectura y los dems en un buffer
+    // (Java 17 no tiene compress(), as que se usa una tabla de permutaciones por mscara). Merge sort:
+    // bloques de dos vectores ordenados dentro de los registros con una red bitnica y mezcla bitnica
+    // de un vector a la vez. Si falta el mdulo o la especie tiene menos de 4 carriles se usan los
+    // kernels escalares (IntroSort y RunMergeSort), as las tareas SIMD siempre terminan.
+    public static class SimdSort {
+        private static final int MIN_LANES = 4;
+        private static final String MODULE = "jdk.incubator.vector";
+        private static final boolean MODULE_PRESENT = ModuleLayer.boot().findModule(MODULE).isPresent();
+        private static final boolean AVAILABLE = MODULE_PRESENT && lanesSupported();
+
+        // Kernels solo se carga si el mdulo est; cargarlo sin l lanzara NoClassDefFoundError
+        private static boolean lanesSupported() {
+            try {
+                return Kernels.LANES >= MIN_LANES;
+            } catch (LinkageError e) {
+                return false;
+            }
+        }
+
+        public static boolean isAvailable() {
+            return AVAILABLE;
+        }
+
+        public static String describe() {
+            if (AVAILABLE) return String.format("Vector API, %d carriles de 32 bits", Kernels.LANES);
+            if (!MODULE_PRESENT) return "no disponibles (falta --add-modules " + MODULE + "), se usan los kernels escalares";
+            return "especie de menos de " + MIN_LANES + " carriles, se usan los kernels escalares";
+        }
+
+        public static void quickSort(int[] arr) {
+            quickSort(arr, 0, arr.length, CancellationToken.NONE);
+        }
+
+        // ordena arr[from, to)
+        public static void quickSort(int[] arr, int from, int to, CancellationToken token) {
+            if (AVAILABLE) {
+                Kernels.quickSort(arr, from, to, token);
+            } else {
+                IntroSort.sort(arr, from, to, token);
+            }
+        }
+
+        public static void mergeSort(int[] arr) {
+            mergeSort(arr, 0, arr.length, CancellationToken.NONE);
+        }
+
+        // ordena arr[from, to)
+        public static void mergeSort(int[] arr, int from, int to, CancellationToken token) {
+            if (AVAILABLE) {
+                Kernels.mergeSort(arr, from, to, token);
+            } else {
+                RunMergeSort.sort(arr, from, to, token);
+            }
+        }
+
+        private static final class Kernels {
+            // a lo ms 8 carriles: la tabla de compactacin tiene 2^LANES permutaciones
+            static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED.length() > 8
+                    ? IntVector.SPECIES_256 : IntVector.SPECIES_PREFERRED;
+            static final int LANES = SPECIES.length();
+            static final int ALL_LANES = (1 << LANES) - 1;
+            // un bloque son dos vectores; los rangos de hasta SMALL_SORT se ordenan con bloques y mezclas
+            static final int BLOCK = 2 * LANES;
+            static final int SMALL_SORT = 8 * LANES;
+
+            static final VectorShuffle<Integer>[] COMPACT = newShuffles(1 << LANES);
+            static final VectorShuffle<Integer> REVERSE = VectorShuffle.fromOp(SPECIES, i -> LANES - 1 - i);
+            // red bitnica de un vector: en cada etapa el carril i se compara con i ^ j y toma el mximo
+            // donde la mscara est prendida; SORT_* ordena un vector, CLEAN_* ordena uno bitnico
+            static final VectorShuffle<Integer>[] SORT_PARTNER;
+            static final VectorMask<Integer>[] SORT_TAKE_MAX;
+            static final VectorShuffle<Integer>[] CLEAN_PARTNER;
+            static final VectorMask<Integer>[] CLEAN_TAKE_MAX;
+            // scratch de las mezclas por hilo, solo hasta este tamao; lo dems se reserva por llamada
+            private static final int MAX_RETAINED_SCRATCH = 1 << 20;
+            private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+            static {
+                // COMPACT[m] lleva al principio, en orden, los carriles cuyo bit est prendido en m
+                int[] order = new int[LANES];
+                for (int m = 0; m < COMPACT.length; m++) {
+                    int k = 0;
+                    for (int i = 0; i < LANES; i++) if ((m >>> i & 1) != 0) order[k++] = i;
+                    for (int i = 0; i < LANES; i++) if ((m >>> i & 1) == 0) order[k++] = i;
+                    COMPACT[m] = VectorShuffle.fromArray(SPECIES, order, 0);
+                }
+
+                int log = Integer.numberOfTrailingZeros(LANES);
+                SORT_PARTNER = newShuffles(log * (log + 1) / 2);
+                SORT_TAKE_MAX = newMasks(SORT_PARTNER.length);
+                int stage = 0;
+                for (int k = 2; k <= LANES; k <<= 1) {
+                    for (int j = k >> 1; j > 0; j >>= 1) {
+                        SORT_PARTNER[stage] = partner(j);
+                        SORT_TAKE_MAX[stage++] = takeMax(j, k);
+                    }
+                }
+                CLEAN_PARTNER = newShuffles(log);
+                CLEAN_TAKE_MAX = newMasks(log);
+                stage = 0;
+                for (int j = LANES >> 1; j > 0; j >>= 1) {
+                    CLEAN_PARTNER[stage] = partner(j);
+                    CLEAN_TAKE_MAX[stage++] = takeMax(j, LANES);
+                }
+            }
+
+            @SuppressWarnings("unchecked")
+            private static VectorShuffle<Integer>[] newShuffles(int n) {
+                return (VectorShuffle<Integer>[]) new VectorShuffle<?>[n];
+            }
+
+            @SuppressWarnings("unchecked")
+            private static VectorMask<Integer>[] newMasks(int n) {
+                return (VectorMask<Integer>[]) new VectorMask<?>[n];
+            }
+
+            private static VectorShuffle<Integer> partner(int j) {
+                return VectorShuffle.fromOp(SPECIES, i -> i ^ j);
+            }
+
+            // subsecuencias de tamao k, ascendentes si (i & k) == 0; el carril alto del par toma el mximo
+            private static VectorMask<Integer> takeMax(int j, int k) {
+                long bits = 0;
+                for (int i = 0; i < LANES; i++) {
+                    if (((i & j) != 0) != ((i & k) != 0)) bits |= 1L << i;
+                }
+                return VectorMask.fromLong(SPECIES, bits);
+            }
+
+            private static int[] scratch(int n) {
+                if (n > MAX_RETAINED_SCRATCH) return new int[n];
+                int[] buffer = SCRATCH.get();
+                if (buffer.length < n) {
+                    buffer = new int[n];
+                    SCRATCH.set(buffer);
+                }
+                return buffer;
+            }
+
+            static IntVector sortVector(IntVector v) {
+                for (int s = 0; s < SORT_PARTNER.length; s++) {
+                    IntVector p = v.rearrange(SORT_PARTNER[s]);
+                    v = v.min(p).blend(v.max(p), SORT_TAKE_MAX[s]);
+                }
+                return v;
+            }
+
+            static IntVector cleanBitonic(IntVector v) {
+                for (int s = 0; s < CLEAN_PARTNER.length; s++) {
+                    IntVector p = v.rearrange(CLEAN_PARTNER[s]);
+                    v = v.min(p).blend(v.max(p), CLEAN_TAKE_MAX[s]);
+                }
+                return v;
+            }
+
+            static void quickSort(int[] arr, int from, int to, CancellationToken token) {
+                if (to - from < 2) return;
+                int[] scratch = scratch(to - from);
+                int[] pad = new int[BLOCK];
+                int[] carry = new int[LANES];
+                long placed = 0;
+                // mismo esquema que IntroSort: pila primitiva de (lo, hi, profundidad), se apila el lado grande
+                int[] stack = new int[3 * 32];
+                int top = 0;
+                int lo = from, hi = to;
+                int depth = IntroSort.depthLimit(to - from);
+
+                while (true) {
+                    while (hi - lo > SMALL_SORT) {
+                        if (hi - lo >= CancellationToken.MIN_CHECKED_RANGE) token.checkpoint(placed, to - from);
+                        if (depth == 0) {
+                            IntroSort.sort(arr, lo, hi);
+                            placed += hi - lo;
+                            lo = hi;
+                            break;
+                        }
+                        depth--;
+                        int pivot = arr[IntroSort.pivotIndex(arr, lo, hi - 1)];
+                        int split = partition(arr, lo, hi, pivot, scratch);
+                        if (split == lo) {
+                            // el pivote es el mnimo: los iguales a l ya quedan en su lugar final
+                            split = pivot == Integer.MAX_VALUE ? hi : partition(arr, lo, hi, pivot + 1, scratch);
+                            placed += split - lo;
+                            lo = split;
+                            continue;
+                        }
+                        if (split - lo < hi - split) {
+                            stack[top++] = split; stack[top++] = hi; stack[top++] = depth;
+                            hi = split;
+                        } else {
+                            stack[top++] = lo; stack[top++] = split; stack[top++] = depth;
+                            lo = split;
+                        }
+                    }
+                    if (hi - lo > 1) sortSmall(arr, lo, hi, scratch, pad, carry);
+                    placed += Math.max(hi - lo, 0);
+
+                    if (top == 0) break;
+                    depth = stack[--top];
+                    hi = stack[--top];
+                    lo = stack[--top];
+                }
+            }
+
+            // Deja al principio de arr[lo, hi) los elementos menores que bound y regresa dnde empiezan
+            // los dems. Los menores se escriben en arr detrs del cursor de lectura (el vector ya se ley,
+            // as que pisar sus carriles es seguro) y los dems en scratch, que al final se copia de regreso.
+            static int partition(int[] arr, int lo, int hi, int bound, int[] scratch) {
+                IntVector pivot = IntVector.broadcast(SPECIES, bound);
+                int left = lo, right = 0;
+                int i = lo;
+                int end = lo + SPECIES.loopBound(hi - lo);
+                for (; i < end; i += LANES) {
+                    IntVector v = IntVector.fromArray(SPECIES, arr, i);
+                    int less = (int) v.compare(VectorOperators.LT, pivot).toLong();
+                    v.rearrange(COMPACT[less]).intoArray(arr, left);
+                    v.rearrange(COMPACT[~less & ALL_LANES]).intoArray(scratch, right);
+                    int count = Integer.bitCount(less);
+                    left += count;
+                    right += LANES - count;
+                }
+                for (; i < hi; i++) {
+                    int v = arr[i];
+                    if (v < bound) arr[left++] = v; else scratch[right++] = v;
+                }
+                System.arraycopy(scratch, 0, arr, left, right);
+                return left;
+            }
+
+            static void mergeSort(int[] arr, int from, int to, CancellationToken token) {
+                int n = to - from;
+                if (n < 2) return;
+                int[] pad = new int[BLOCK];
+                int[] carry = new int[LANES];
+                sortBlocks(arr, from, to, pad);
+                mergeBlocks(arr, from, to, scratch(n), carry, token);
+            }
+
+            // rangos chicos del quicksort: bloques en registros y mezcla, sin revisar el token
+            private static void sortSmall(int[] arr, int from, int to, int[] buffer, int[] pad, int[] carry) {
+                sortBlocks(arr, from, to, pad);
+                mergeBlocks(arr, from, to, buffer, carry, CancellationToken.NONE);
+            }
+
+            // Ordena cada bloque de BLOCK elementos; el ltimo, incompleto, se rellena con MAX_VALUE
+            private static void sortBlocks(int[] arr, int from, int to, int[] pad) {
+                int i = from;
+                for (; i + BLOCK <= to; i += BLOCK) sortBlock(arr, i);
+                if (i < to) {
+                    Arrays.fill(pad, Integer.MAX_VALUE);
+                    System.arraycopy(arr, i, pad, 0, to - i);
+                    sortBlock(pad, 0);
+                    System.arraycopy(pad, 0, arr, i, to - i);
+                }
+            }
+
+            // dos vectores ordenados por separado y mezclados con una red bitnica
+            private static void sortBlock(int[] arr, int i) {
+                IntVector a = sortVector(IntVector.fromArray(SPECIES, arr, i));
+                IntVector b = sortVector(IntVector.fromArray(SPECIES, arr, i + LANES)).rearrange(REVERSE);
+                cleanBitonic(a.min(b)).intoArray(arr, i);
+                cleanBitonic(a.max(b)).intoArray(arr, i + LANES);
+            }
+
+            // Mezcla de abajo hacia arriba de bloques ya ordenados, alternando entre arr y buffer.
+            // El avance es la fraccin de pasadas terminadas, como en RunMergeSort.
+            private static void mergeBlocks(int[] arr, int from, int to, int[] buffer, int[] carry, CancellationToken token) {
+                int n = to - from;
+                if (n <= BLOCK) return;
+                int passes = 32 - Integer.numberOfLeadingZeros((n - 1) / BLOCK);
+                int[] src = arr, dst = buffer;
+                int srcOff = from, dstOff = 0;
+                int pass = 0;
+                for (int width = BLOCK; width < n; width <<= 1) {
+                    if (n >= CancellationToken.MIN_CHECKED_RANGE) token.checkpoint(pass++, passes);
+                    for (int lo = 0; lo < n; lo += 2 * width) {
+                        int mid = Math.min(lo + width, n);
+                        int hi = Math.min(lo + 2 * width, n);
+                        merge(src, srcOff + lo, srcOff + mid, srcOff + hi, dst, dstOff + lo, carry);
+                    }
+                    int[] tmp = src; src = dst; dst = tmp;
+                    int off = srcOff; srcOff = dstOff; dstOff = off;
+                }
+                if (src != arr) System.arraycopy(src, 0, arr, from, n);
+            }
+
+            // Mezcla bitnica de src[lo, mid) y src[mid, hi) en dst[out, ...). Se guarda un vector con
+            // los LANES mayores vistos; cada vuelta entra un vector del lado con la cabeza menor, la red
+            // saca los LANES menores de los dos y se queda con el resto. Lo que queda (el vector guardado
+            // y las colas de menos de LANES) se mezcla en escalar.
+            private static void merge(int[] src, int lo, int mid, int hi, int[] dst, int out, int[] carry) {
+                int i = lo, j = mid;
+                int c = LANES;
+                if (mid - lo >= LANES && hi - mid >= LANES) {
+                    IntVector kept = IntVector.fromArray(SPECIES, src, i);
+                    i += LANES;
+                    while (true) {
+                        // si el lado con la cabeza menor ya no llena un vector se termina en escalar
+                        boolean takeLeft = j >= hi || (i < mid && src[i] <= src[j]);
+                        IntVector next;
+                        if (takeLeft) {
+                            if (i + LANES > mid) break;
+                            next = IntVector.fromArray(SPECIES, src, i);
+                            i += LANES;
+                        } else {
+                            if (j + LANES > hi) break;
+                            next = IntVector.fromArray(SPECIES, src, j);
+                            j += LANES;
+                        }
+                        IntVector reversed = next.rearrange(REVERSE);
+                        cleanBitonic(kept.min(reversed)).intoArray(dst, out);
+                        out += LANES;
+                        kept = cleanBitonic(kept.max(reversed));
+                    }
+                    kept.intoArray(carry, 0);
+                    c = 0;
+                }
+                while (c < LANES || i < mid || j < hi) {
+                    if (c < LANES && (i >= mid || carry[c] <= src[i]) && (j >= hi || carry[c] <= src[j])) {
+                        dst[out++] = carry[c++];
+                    } else if (i < mid && (j >= hi || src[i] <= src[j])) {
+                        dst[out++] = src[i++];
+                    } else {
+                        dst[out++] = src[j++];
+                    }
+                }
+            }
+        }
+    }
+
+    // Algoritmo AUTO: una muestra barata de la entrada decide qu kernel usar.
+    // La muestra revisa pares vecinos en posiciones repartidas (cuntas veces cambia el sentido
+    // indica cuntas corridas hay) y el rango y la cantidad de valores distintos de esos elementos.
+    // Si la muestra se equivoca solo cuesta tiempo: CountingSort revisa el rango real y
+    // RunMergeSort funciona con cualquier entrada.
+    public static class AdaptiveSort {
+        private static final int TINY = 32;
+        private static final int SMALL = 2048;
+        private static final int SAMPLE_SIZE = 1024;
+        private static final int PARALLEL_THRESHOLD = 1 << 16;
+        private static final int NARROW_DISTINCT = 256;
+        private static final long RADIX_RANGE = 1L << 16;
+
+        public enum Kernel {
+            INSERTION("Insertion Sort"),
+            COUNTING("Counting Sort"),
+            RADIX("Radix Sort"),
+            RUN_MERGE("Mezcla de corridas naturales"),
+            INTRO("Introsort"),
+            PARALLEL_MERGE("Merge Sort Paralelo");
+
+            private final String displayName;
+
+            Kernel(String displayName) {
+                this.displayName = displayName;
+            }
+
+            public String getDisplayName() {
+                return displayName;
+            }
+        }
+
+        // Lo que decidi AUTO para una entrada y cunto tard el muestreo
+        public static final class Plan {
+            public final Kernel kernel;
+            public final long samplingNanos;
+
+            Plan(Kernel kernel, long samplingNanos) {
+                this.kernel = kernel;
+                this.samplingNanos = samplingNanos;
+            }
+        }
+
+        public static Plan sort(int[] arr) {
+            return sort(arr, 0, arr.length, CancellationToken.NONE);
+        }
+
+        public static Plan sort(int[] arr, int from, int to, CancellationToken token) {
+            long start = System.nanoTime();
+            Kernel kernel = choose(arr, from, to);
+            long samplingNanos = System.nanoTime() - start;
+            switch (kernel) {
+                case INSERTION: insertionSort(arr, from, to); break;
+                case COUNTING: CountingSort.sort(arr, from, to); break;
+                case RADIX: RadixSort.sort(arr, from, to); break;
+                case RUN_MERGE: RunMergeSort.sort(arr, from, to, token); break;
+                case PARALLEL_MERGE: ParallelMergeSort.sort(arr, to, token); break;
+                default: IntroSort.sort(arr, from, to, token); break;
+            }
+            return new Plan(kernel, samplingNanos);
+        }
+
+        // Elige el kernel a partir de una muestra de a lo ms SAMPLE_SIZE pares
+        public static Kernel choose(int[] arr, int from, int to) {
+            int n = to - from;
+            if (n <= TINY) return Kernel.INSERTION;
+
+            int samples = Math.min(SAMPLE_SIZE, n - 1);
+            int[] sample = new int[samples];
+            int direction = 0, changes = 0;
+            for (int k = 0; k < samples; k++) {
+                int i = from + (int) ((long) k * (n - 1) / samples);
+                sample[k] = arr[i];
+                int d = Integer.compare(arr[i + 1], arr[i]);
+                if (d != 0) {
+                    if (direction != 0 && d != direction) changes++;
+                    direction = d;
+                }
+            }
+            // el sentido casi nunca cambia: hay pocas corridas largas que solo hay que mezclar
+            if (changes <= samples / 64) return Kernel.RUN_MERGE;
+            if (n < SMALL) return Kernel.INTRO;
+
+            Arrays.sort(sample);
+            long range = (long) sample[samples - 1] - sample[0] + 1;
+            int distinct = 1;
+            for (int k = 1; k < samples; k++) {
+                if (sample[k] != sample[k - 1]) distinct++;
+            }
+            if ((distinct <= NARROW_DISTINCT && distinct * 4 <= samples) || range <= n) return Kernel.COUNTING;
+            if (range <= RADIX_RANGE) return Kernel.RADIX;
+            // ParallelMergeSort solo ordena prefijos [0, length)
+            if (from == 0 && n >= PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1) {
+                return Kernel.PARALLEL_MERGE;
+            }
+            return Kernel.INTRO;
+        }
+
+        private static void insertionSort(int[] arr, int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                int key = arr[i];
+                int j = i - 1;
+                while (j >= from && arr[j] > key) {
+                    arr[j + 1] = arr[j];
+                    j--;
+                }
+                arr[j + 1] = key;
+            }
+        }
+    }
+
+    // Merge sort natural: detecta las corridas ya ordenadas (las descendentes las invierte)
+    // y las mezcla por pares de abajo hacia arriba. Con k corridas cuesta O(n log k),
+    // as que una entrada ordenada sale en una sola pasada de O(n).
+    public static class RunMergeSort {
+
+        public static void sort(int[] arr) {
+            sort(arr, 0, arr.length, CancellationToken.NONE);
+        }
+
+        // El avance es la fraccin de pasadas de mezcla terminadas
+        public static void sort(int[] arr, int from, int to, CancellationToken token) {
+            int n = to - from;
+            if (n < 2) return;
+
+            // bounds[r] es el inicio de la corrida r; bounds[runs] = to
+            int[] bounds = new int[16];
+            int runs = 0;
+            int i = from;
+            while (i < to) {
+                if (runs + 1 >= bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                bounds[runs++] = i;
+                int j = i + 1;
+                if (j < to && arr[j] < arr[i]) {
+                    while (j < to && arr[j] < arr[j - 1]) j++;
+                    reverse(arr, i, j);
+                } else {
+                    while (j < to && arr[j] >= arr[j - 1]) j++;
+                }
+                i = j;
+            }
+            bounds[runs] = to;
+            if (runs == 1) return;
+
+            int passes = 32 - Integer.numberOfLeadingZeros(runs - 1);
+            int[] src = arr;
+            int[] dst = new int[n];
+            int srcOff = 0, dstOff = from;  // arr usa ndices absolutos, el buffer empieza en from
+            for (int pass = 0; runs > 1; pass++) {
+                token.checkpoint(pass, passes);
+                int merged = 0;
+                for (int r = 0; r < runs; r += 2) {
+                    int lo = bounds[r];
+                    int mid = bounds[Math.min(r + 1, runs)];
+                    int hi = bounds[Math.min(r + 2, runs)];
+                    merge(src, lo - srcOff, mid - srcOff, hi - srcOff, dst, lo - dstOff);
+                    bounds[merged++] = lo;
+                }
+                bounds[merged] = to;
+                runs = merged;
+                int[] tmp = src; src = dst; dst = tmp;
+                int off = srcOff; srcOff = dstOff; dstOff = off;
+            }
+            if (src != arr) System.arraycopy(src, 0, arr, from, n);
+        }
+
+        private static void merge(int[] src, int lo, int mid, int hi, int[] dst, int out) {
+            int i = lo, j = mid;
+            while (i < mid && j < hi) {
+                dst[out++] = src[j] < src[i] ? src[j++] : src[i++];
+            }
+            System.arraycopy(src, i, dst, out, mid - i);
+            out += mid - i;
+            System.arraycopy(src, j, dst, out, hi - j);
+        }
+
+        private static void reverse(int[] arr, int from, int to) {
+            for (int i = from, j = to - 1; i < j; i++, j--) {
+                int tmp = arr[i];
+                arr[i] = arr[j];
+                arr[j] = tmp;
+            }
+        }
+    }
+
+    // Ordenamiento externo para archivos ms grandes que el heap. El archivo es una secuencia de
+    // int de 4 bytes big-endian (el formato de DataOutputStream). Fase 1: se lee por bloques con
+    // MappedByteBuffer, cada bloque se ordena en memoria con RadixSort.parallelSort y se escribe como
+    // corrida ordenada en un archivo temporal. Fase 2: mezcla de k vas con un min-heap de int sobre
+    // buffers directos; si hay ms corridas que maxFanIn se mezclan en varias pasadas.
+    // Una instancia no es segura para hilos: cada tarea usa la suya.
+    public static class ExternalSorter {
+        public static final int DEFAULT_FAN_IN = 64;
+        private static final int MIN_RUN_ELEMENTS = 1 << 16;
+        private static final int MAX_RUN_ELEMENTS = 1 << 26; // 256 MB, cabe en un solo map()
+        private static final int WRITE_BUFFER_BYTES = 1 << 20;
+        private static final int MERGE_MEMORY_BYTES = 1 << 26;
+        private static final int MIN_READ_BUFFER_BYTES = 1 << 16;
+        private static final int MAX_READ_BUFFER_BYTES = 1 << 22;
+
+        private final int runElements;
+        private final int maxFanIn;
+        private final Path tempDir;
+        private volatile Stats lastStats;
+
+        public ExternalSorter() {
+            this(defaultRunElements(), DEFAULT_FAN_IN, Paths.get(System.getProperty("java.io.tmpdir")));
+        }
+
+        public ExternalSorter(int runElements, int maxFanIn, Path tempDir) {
+            if (runElements < 1 || runElements > MAX_RUN_ELEMENTS) {
+                throw new IllegalArgumentException("Tamao de bloque fuera de rango (1-" + MAX_RUN_ELEMENTS + "): " + runElements);
+            }
+            if (maxFanIn < 2) throw new IllegalArgumentException("El fan-in debe ser al menos 2: " + maxFanIn);
+            this.runElements = runElements;
+            this.maxFanIn = maxFanIn;
+            this.tempDir = tempDir;
+        }
+
+        // Un octavo del heap mximo por bloque, para que varias tareas quepan a la vez
+        public static int defaultRunElements() {
+            long ints = Runtime.getRuntime().maxMemory() / 8 / Integer.BYTES;
+            return (int) Math.max(MIN_RUN_ELEMENTS, Math.min(MAX_RUN_ELEMENTS, ints));
+        }
+
+        public int getRunElements() { return runElements; }
+        public int getMaxFanIn() { return maxFanIn; }
+        public Stats getLastStats() { return lastStats; }
+
+        public Stats sort(Path input, Path output) throws IOException {
+            return sort(input, output, CancellationToken.NONE);
+        }
+
+        public Stats sort(Path input, Path output, CancellationToken token) throws IOException {
+            long bytes = Files.size(input);
+            if (bytes % Integer.BYTES != 0) {
+                throw new IOException("El archivo no contiene un nmero entero de int: " + input);
+            }
+            Stats stats = new Stats(bytes / Integer.BYTES);
+            long runCount = (stats.elements + runElements - 1) / runElements;
+            stats.plannedWork = stats.elements * (1 + mergePasses(runCount));
+
+            List<Path> runs = new ArrayList<>();
+            // todos los temporales de las pasadas intermedias, para borrarlos aunque una mezcla falle a la mitad
+            List<Path> merged = new ArrayList<>();
+            try {
+                long start = System.nanoTime();
+                createRuns(input, stats, runs, token);
+                stats.runNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                while (runs.size() > maxFanIn) {
+                    List<Path> next = new ArrayList<>();
+                    for (int from = 0; from < runs.size(); from += maxFanIn) {
+                        List<Path> group = runs.subList(from, Math.min(from + maxFanIn, runs.size()));
+                        Path target = Files.createTempFile(tempDir, "corrida", ".bin");
+                        merged.add(target);
+                        next.add(target);
+                        merge(group, target, stats, token);
+                        group.forEach(ExternalSorter::deleteQuietly);
+                    }
+                    runs = next;
+                    stats.mergePasses++;
+                }
+                merge(runs, output, stats, token);
+                stats.mergePasses++;
+                stats.mergeNanos = System.nanoTime() - start;
+            } finally {
+                runs.forEach(ExternalSorter::deleteQuietly);
+                merged.forEach(ExternalSorter::deleteQuietly);
+            }
+            lastStats = stats;
+            return stats;
+        }
+
+        // Ordena arr[from, to) pasando por disco; sirve para comparar contra los kernels en memoria
+        public Stats sortArray(int[] arr, int from, int to, CancellationToken token) throws IOException {
+            Path input = Files.createTempFile(tempDir, "entrada", ".bin");
+            Path output = Files.createTempFile(tempDir, "salida", ".bin");
+            try {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+                try (FileChannel channel = FileChannel.open(input, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    writeInts(channel, buffer, arr, from, to - from);
+                }
+                Stats stats = sort(input, output, token);
+                try (FileChannel channel = FileChannel.open(output, StandardOpenOption.READ)) {
+                    int pos = from;
+                    while (pos < to) {
+                        buffer.clear();
+                        buffer.limit(Math.min(buffer.capacity(), (to - pos) * Integer.BYTES));
+                        while (buffer.hasRemaining()) {
+                            if (channel.read(buffer) < 0) throw new EOFException("Salida incompleta: " + output);
+                        }
+                        buffer.flip();
+                        IntBuffer ints = buffer.asIntBuffer();
+                        int n = ints.remaining();
+                        ints.get(arr, pos, n);
+                        pos += n;
+                    }
+                }
+                return stats;
+            } finally {
+                deleteQuietly(input);
+                deleteQuietly(output);
+            }
+        }
+
+        private long mergePasses(long runCount) {
+            long passes = 1;
+            while (runCount > maxFanIn) {
+                runCount = (runCount + maxFanIn - 1) / maxFanIn;
+                passes++;
+            }
+            return passes;
+        }
+
+        private void createRuns(Path input, Stats stats, List<Path> runs, CancellationToken token) throws IOException {
+            if (stats.elements == 0) return;
+            int[] chunk = new int[(int) Math.min(runElements, stats.elements)];
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                for (long pos = 0; pos < stats.elements; ) {
+                    int n = (int) Math.min(chunk.length, stats.elements - pos);
+                    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, pos * Integer.BYTES, (long) n * Integer.BYTES);
+                    mapped.asIntBuffer().get(chunk, 0, n);
+                    stats.bytesRead += (long) n * Integer.BYTES;
+
+                    RadixSort.parallelSort(chunk, 0, n);
+
+                    Path run = Files.createTempFile(tempDir, "corrida", ".bin");
+                    runs.add(run);
+                    try (FileChannel out = FileChannel.open(run, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                        writeInts(out, buffer, chunk, 0, n);
+                    }
+                    stats.bytesWritten += (long) n * Integer.BYTES;
+                    pos += n;
+                    stats.work += n;
+                    token.checkpoint(stats.work, stats.plannedWork);
+                }
+            }
+            stats.runs = runs.size();
+        }
+
+        // Mezcla de k vas: heapValues/heapRuns forman un min-heap por el valor actual de cada corrida
+        private void merge(List<Path> runs, Path output, Stats stats, CancellationToken token) throws IOException {
+            int k = runs.size();
+            stats.fanIn = Math.max(stats.fanIn, k);
+            int readBufferBytes = Math.max(MIN_READ_BUFFER_BYTES,
+                                           Math.min(MAX_READ_BUFFER_BYTES, MERGE_MEMORY_BYTES / Math.max(k, 1)));
+            RunReader[] readers = new RunReader[k];
+            int[] heapValues = new int[k];
+            int[] heapRuns = new int[k];
+            int size = 0;
+            ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (int r = 0; r < k; r++) {
+                    long runBytes = Files.size(runs.get(r));
+                    readers[r] = new RunReader(runs.get(r), (int) Math.max(Integer.BYTES, Math.min(readBufferBytes, runBytes)));
+                    if (readers[r].advance()) {
+                        heapValues[size] = readers[r].current;
+                        heapRuns[size] = r;
+                        siftUp(heapValues, heapRuns, size++);
+                    }
+                }
+                long merged = 0;
+                while (size > 0) {
+                    if (out.remaining() < Integer.BYTES) flush(channel, out);
+                    out.putInt(heapValues[0]);
+                    RunReader reader = readers[heapRuns[0]];
+                    if (reader.advance()) {
+                        heapValues[0] = reader.current;
+                    } else {
+                        size--;
+                        heapValues[0] = heapValues[size];
+                        heapRuns[0] = heapRuns[size];
+                    }
+                    siftDown(heapValues, heapRuns, 0, size);
+                    if ((++merged & 0xFFFF) == 0) token.checkpoint(stats.work + merged, stats.plannedWork);
+                }
+                flush(channel, out);
+                stats.work += merged;
+                stats.bytesWritten += merged * Integer.BYTES;
+            } finally {
+                for (RunReader reader : readers) {
+                    if (reader != null) {
+                        stats.bytesRead += reader.bytesRead;
+                        reader.close();
+                    }
+                }
+            }
+        }
+
+        private static void siftUp(int[] values, int[] runs, int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (values[parent] <= values[i]) break;
+                swapHeap(values, runs, parent, i);
+                i = parent;
+            }
+        }
+
+        private static void siftDown(int[] values, int[] runs, int i, int size) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) return;
+                if (child + 1 < size && values[child + 1] < values[child]) child++;
+                if (values[i] <= values[child]) return;
+                swapHeap(values, runs, i, child);
+                i = child;
+            }
+        }
+
+        private static void swapHeap(int[] values, int[] runs, int i, int j) {
+            int v = values[i]; values[i] = values[j]; values[j] = v;
+            int r = runs[i]; runs[i] = runs[j]; runs[j] = r;
+        }
+
+        private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] src, int from, int n) throws IOException {
+            int pos = from;
+            int end = from + n;
+            while (pos < end) {
+                buffer.clear();
+                IntBuffer ints = buffer.asIntBuffer();
+                int count = Math.min(ints.remaining(), end - pos);
+                ints.put(src, pos, count);
+                buffer.position(count * Integer.BYTES);
+                flush(channel, buffer);
+                pos += count;
+            }
+        }
+
+        // Vaca lo acumulado en [0, position) y deja el buffer listo para seguir escribiendo
+        private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        // En Windows un archivo mapeado no se puede borrar hasta que el GC libera el mapeo
+        private static void deleteQuietly(Path path) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                path.toFile().deleteOnExit();
+            }
+        }
+
+        // Lector secuencial de una corrida con su propio buffer directo
+        private static final class RunReader {
+            private final FileChannel channel;
+            private final ByteBuffer buffer;
+            private int current;
+            private long bytesRead;
+
+            RunReader(Path path, int bufferBytes) throws IOException {
+                this.channel = FileChannel.open(path, StandardOpenOption.READ);
+                this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+                this.buffer.flip();
+            }
+
+            boolean advance() throws IOException {
+                if (buffer.remaining() < Integer.BYTES) {
+                    buffer.compact();
+                    while (buffer.position() < Integer.BYTES) {
+                        int read = channel.read(buffer);
+                        if (read < 0) {
+                            buffer.flip();
+                            return false;
+                        }
+                        bytesRead += read;
+                    }
+                    buffer.flip();
+                }
+                current = buffer.getInt();
+                return true;
+            }
+
+            void close() throws IOException {
+                channel.close();
+            }
+        }
+
+        // Resultado de un ordenamiento externo
+        public static final class Stats {
+            public final long elements;
+            private long runs;
+            private int fanIn;
+            private int mergePasses;
+            private long bytesRead;
+            private long bytesWritten;
+            private long runNanos;
+            private long mergeNanos;
+            private long work;
+            private long plannedWork;
+
+            Stats(long elements) {
+                this.elements = elements;
+            }
+
+            public long getRuns() { return runs; }
+            public int getFanIn() { return fanIn; }
+            public int getMergePasses() { return mergePasses; }
+            public long getBytesRead() { return bytesRead; }
+            public long getBytesWritten() { return bytesWritten; }
+            public long getRunNanos() { return runNanos; }
+            public long getMergeNanos() { return mergeNanos; }
+
+            // MB/s de lectura ms escritura sobre el tiempo total
+            public double getThroughputMBps() {
+                long nanos = runNanos + mergeNanos;
+                return nanos == 0 ? 0 : (bytesRead + bytesWritten) / 1e6 / (nanos / 1e9);
+            }
+
+            @Override
+            public String toString() {
+                return String.format(Locale.US,
+                        "%,d elementos, %d corridas, fan-in %d, %d pasada(s) de mezcla, %.1f MB ledos, %.1f MB escritos, "
+                        + "corridas %.1f ms, mezcla %.1f ms, %.1f MB/s",
+                        elements, runs, fanIn, mergePasses, bytesRead / 1e6, bytesWritten / 1e6,
+                        runNanos / 1e6, mergeNanos / 1e6, getThroughputMBps());
+            }
+        }
+    }
+
+    // Ordenamiento repartido entre procesos: el coordinador lanza N JVM trabajadoras en esta misma
+    // mquina (--trabajador=puerto), parte el arreglo en rangos de valores con separadores
+    // muestreados y manda cada rango por un socket local. Cada trabajadora lo ordena con un kernel de
+    // ARRAY y lo regresa; como los rangos no se enciman, basta concatenarlos. Protocolo binario
+    // little-endian sobre SocketChannel:
+    //   peticin:  MAGIC, operacin, algoritmo (ordinal), n, n int
+    //   respuesta: MAGIC, estado, nanos de ordenamiento (long), n, n int
+    public static class DistributedSorter implements AutoCloseable {
+        public static final int MAX_WORKERS = 64;
+        private static final int MAGIC = 0x534F5254; // "SORT"
+        private static final int OP_SORT = 1;
+        private static final int OP_CLOSE = 2;
+        private static final int STATUS_OK = 0;
+        private static final int STATUS_ERROR = 1;
+        private static final int REQUEST_HEADER_BYTES = 4 * Integer.BYTES;
+        private static final int RESPONSE_HEADER_BYTES = 3 * Integer.BYTES + Long.BYTES;
+        private static final int BUFFER_BYTES = 1 << 20;
+        private static final int OVERSAMPLING = 32;
+        private static final long CONNECT_TIMEOUT_MILLIS = 30_000;
+        // la JVM trabajadora lo imprime al cargar jdk.incubator.vector y partira las tablas del coordinador
+        private static final String INCUBATOR_WARNING = "WARNING: Using incubator modules";
+
+        private final List<Process> processes = new ArrayList<>();
+        private final List<SocketChannel> channels = new ArrayList<>();
+        private final List<ByteBuffer> buffers = new ArrayList<>();
+        private final ExecutorService io;
+        private final SplittableRandom random = new SplittableRandom(DataGenerator.DEFAULT_SEED);
+        private final long startupNanos;
+        private int[] scratch = new int[0];
+
+        // Lanza workers JVM y espera a que todas se conecten
+        public DistributedSorter(int workers) throws IOException {
+            if (workers < 1 || workers > MAX_WORKERS) {
+                throw new IllegalArgumentException("Nmero de trabajadores fuera de rango (1-" + MAX_WORKERS + "): " + workers);
+            }
+            long start = System.nanoTime();
+            this.io = Executors.newFixedThreadPool(workers, r -> {
+                Thread thread = new Thread(r, "distribuido-e/s");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try (ServerSocketChannel server = ServerSocketChannel.open();
+                 Selector selector = Selector.open()) {
+                server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), workers);
+                server.configureBlocking(false);
+                server.register(selector, SelectionKey.OP_ACCEPT);
+                int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+                for (int i = 0; i < workers; i++) {
+                    processes.add(launchWorker(port));
+                }
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT_MILLIS);
+                while (channels.size() < workers) {
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0 || processes.stream().anyMatch(p -> !p.isAlive())) {
+                        throw new IOException(String.format("Solo se conectaron %d de %d trabajadores", channels.size(), workers));
+                    }
+                    selector.select(Math.min(remaining, 200));
+                    selector.selectedKeys().clear();
+                    SocketChannel channel;
+                    while (channels.size() < workers && (channel = server.accept()) != null) {
+                        channel.configureBlocking(true);
+                        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                        buffer.limit(Integer.BYTES);
+                        readFully(channel, buffer);
+                        if (buffer.getInt(0) != MAGIC) {
+                            channel.close();
+                            throw new IOException("Saludo invlido de un trabajador");
+                        }
+                        channels.add(channel);
+                        buffers.add(buffer);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+            this.startupNanos = System.nanoTime() - start;
+        }
+
+        // misma JVM, mismo classpath; el mdulo de vectores solo si esta JVM lo tiene
+        private static Process launchWorker(int port) throws IOException {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                command.add("--add-modules");
+                command.add("jdk.incubator.vector");
+            }
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(ConcurrentSortingProject.class.getName());
+            command.add("--trabajador=" + port);
+            Process process = new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            Thread relay = new Thread(() -> relayErrors(process), "trabajador-stderr");
+            relay.setDaemon(true);
+            relay.start();
+            return process;
+        }
+
+        // pasa el stderr de la trabajadora al del coordinador, menos el aviso de mdulos incubadora
+        private static void relayErrors(Process process) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith(INCUBATOR_WARNING)) System.err.println(line);
+                }
+            } catch (IOException e) {
+                // la trabajadora termin
+            }
+        }
+
+        public int getWorkerCount() { return channels.size(); }
+        public long getStartupNanos() { return startupNanos; }
+
+        public Stats sort(int[] arr, SortAlgorithm algorithm) throws IOException {
+            return sort(arr, channels.size(), algorithm);
+        }
+
+        // Ordena arr en su lugar usando las primeras workers trabajadoras
+        public Stats sort(int[] arr, int workers, SortAlgorithm algorithm) throws IOException {
+            if (workers < 1 || workers > channels.size()) {
+                throw new IllegalArgumentException("Hay " + channels.size() + " trabajadores, se pidieron " + workers);
+            }
+            if (algorithm == SortAlgorithm.EXTERNAL_MERGE_SORT) {
+                throw new IllegalArgumentException("Los trabajadores ordenan en memoria");
+            }
+            int n = arr.length;
+            Stats stats = new Stats(n, workers);
+            long start = System.nanoTime();
+            if (scratch.length < n) scratch = new int[n];
+            int[] bounds = partition(arr, scratch, workers);
+            stats.partitionNanos = System.nanoTime() - start;
+
+            long exchangeStart = System.nanoTime();
+            List<Future<long[]>> replies = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                final int worker = w;
+                stats.partitionSizes[w] = bounds[w + 1] - bounds[w];
+                replies.add(io.submit(() -> exchange(worker, algorithm, scratch, bounds[worker], bounds[worker + 1])));
+            }
+            long maxSortNanos = 0;
+            for (int w = 0; w < workers; w++) {
+                long[] reply = await(replies.get(w), w);
+                maxSortNanos = Math.max(maxSortNanos, reply[0]);
+                stats.bytesTransferred += reply[1];
+            }
+            long exchangeNanos = System.nanoTime() - exchangeStart;
+            stats.remoteSortNanos = maxSortNanos;
+            stats.transferNanos = Math.max(0, exchangeNanos - maxSortNanos);
+
+            start = System.nanoTime();
+            System.arraycopy(scratch, 0, arr, 0, n);
+            stats.gatherNanos = System.nanoTime() - start;
+            return stats;
+        }
+
+        private static long[] await(Future<long[]> reply, int worker) throws IOException {
+            try {
+                return reply.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrumpido esperando al trabajador " + worker, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                throw new IOException("Fall el trabajador " + worker + ": " + cause, cause);
+            }
+        }
+
+        // Reparte arr en out por rangos de valores; regresa los lmites de cada rango (workers + 1).
+        // Los separadores salen de una muestra ordenada; con muchos duplicados algunos rangos quedan
+        // vacos y otros cargan de ms, y eso se ve en el desbalance del reporte.
+        private int[] partition(int[] arr, int[] out, int workers) {
+            int n = arr.length;
+            int[] bounds = new int[workers + 1];
+            if (workers == 1 || n < workers * OVERSAMPLING) {
+                System.arraycopy(arr, 0, out, 0, n);
+                Arrays.fill(bounds, 1, bounds.length, n);
+                return bounds;
+            }
+            int[] sample = new int[workers * OVERSAMPLING];
+            for (int i = 0; i < sample.length; i++) sample[i] = arr[random.nextInt(n)];
+            Arrays.sort(sample);
+            int[] splitters = new int[workers - 1];
+            for (int i = 0; i < splitters.length; i++) splitters[i] = sample[(i + 1) * OVERSAMPLING - 1];
+
+            byte[] bucketOf = new byte[n];
+            int[] counts = new int[workers];
+            for (int i = 0; i < n; i++) {
+                int bucket = upperBound(splitters, arr[i]);
+                bucketOf[i] = (byte) bucket;
+                counts[bucket]++;
+            }
+            for (int w = 0; w < workers; w++) bounds[w + 1] = bounds[w] + counts[w];
+            int[] next = Arrays.copyOf(bounds, workers);
+            for (int i = 0; i < n; i++) out[next[bucketOf[i]]++] = arr[i];
+            return bounds;
+        }
+
+        // primer ndice cuyo separador es mayor que key
+        private static int upperBound(int[] splitters, int key) {
+            int lo = 0, hi = splitters.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (splitters[mid] <= key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        // manda data[from, to) a la trabajadora y deja la respuesta en el mismo rango;
+        // regresa {nanos de ordenamiento remoto, bytes enviados + recibidos}
+        private long[] exchange(int worker, SortAlgorithm algorithm, int[] data, int from, int to) throws IOException {
+            SocketChannel channel = channels.get(worker);
+            ByteBuffer buffer = buffers.get(worker);
+            buffer.clear();
+            buffer.putInt(MAGIC).putInt(OP_SORT).putInt(algorithm.ordinal()).putInt(to - from);
+            writeInts(channel, buffer, data, from, to);
+
+            buffer.clear().limit(RESPONSE_HEADER_BYTES);
+            readFully(channel, buffer);
+            buffer.flip();
+            if (buffer.getInt() != MAGIC) throw new IOException("Respuesta invlida del trabajador " + worker);
+            int status = buffer.getInt();
+            long sortNanos = buffer.getLong();
+            int length = buffer.getInt();
+            if (status != STATUS_OK) throw new IOException("El trabajador " + worker + " no pudo ordenar su particin");
+            if (length != to - from) {
+                throw new IOException(String.format("El trabajador %d regres %d elementos, se esperaban %d", worker, length, to - from));
+            }
+            readInts(channel, buffer, data, from, to);
+            long bytes = REQUEST_HEADER_BYTES + RESPONSE_HEADER_BYTES + 2L * (to - from) * Integer.BYTES;
+            return new long[] {sortNanos, bytes};
+        }
+
+        // escribe lo que ya haya en buffer seguido de data[from, to), en bloques del tamao del buffer
+        private static void writeInts(SocketChannel channel, ByteBuffer buffer, int[] data, int from, int to) throws IOException {
+            int pos = from;
+            do {
+                int count = Math.min(to - pos, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(data, pos, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                pos += count;
+                buffer.flip();
+                while (buffer.hasRemaining()) channel.write(buffer);
+                buffer.clear();
+            } while (pos < to);
+        }
+
+        private static void readInts(SocketChannel channel, ByteBuffer buffer, int[] data, int from, int to) throws IOException {
+            int pos = from;
+            while (pos < to) {
+                int count = Math.min(to - pos, buffer.capacity() / Integer.BYTES);
+                buffer.clear().limit(count * Integer.BYTES);
+                readFully(channel, buffer);
+                buffer.flip();
+                buffer.asIntBuffer().get(data, pos, count);
+                pos += count;
+            }
+        }
+
+        // lee count int y los descarta, para que la siguiente cabecera quede alineada
+        private static void skipInts(SocketChannel channel, ByteBuffer buffer, int count) throws IOException {
+            long remaining = (long) count * Integer.BYTES;
+            while (remaining > 0) {
+                buffer.clear().limit((int) Math.min(remaining, buffer.capacity()));
+                readFully(channel, buffer);
+                remaining -= buffer.limit();
+            }
+        }
+
+        // llena buffer hasta su lmite; EOF antes de eso es un error de protocolo
+        private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) throw new EOFException("El otro extremo cerr la conexin");
+            }
+        }
+
+        // Proceso trabajador: se conecta al coordinador y ordena lo que le manden hasta OP_CLOSE
+        public static void runWorker(int port) throws IOException {
+            try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).flip();
+                while (buffer.hasRemaining()) channel.write(buffer);
+
+                SortAlgorithm[] algorithms = SortAlgorithm.values();
+                int[] data = new int[0];
+                while (true) {
+                    buffer.clear().limit(REQUEST_HEADER_BYTES);
+                    try {
+                        readFully(channel, buffer);
+                    } catch (EOFException e) {
+                        return; // el coordinador se fue sin despedirse
+                    }
+                    buffer.flip();
+                    if (buffer.getInt() != MAGIC) throw new IOException("Peticin invlida del coordinador");
+                    int operation = buffer.getInt();
+                    int algorithm = buffer.getInt();
+                    int length = buffer.getInt();
+                    if (operation == OP_CLOSE) return;
+
+                    int status = STATUS_OK;
+                    long sortNanos = 0;
+                    if (length < 0) {
+                        // no se sabe cuntos datos siguen: se contesta con error y se cierra la conexin
+                        System.err.printf("Trabajador: longitud invlida (%d)\n", length);
+                        status = STATUS_ERROR;
+                    } else if (operation != OP_SORT) {
+                        // los datos se descartan para no tomarlos por la siguiente cabecera
+                        System.err.printf("Trabajador: operacin desconocida (%d)\n", operation);
+                        skipInts(channel, buffer, length);
+                        status = STATUS_ERROR;
+                    } else {
+                        // los kernels de ARRAY ordenan arr.length completo: se reusa solo si mide lo mismo
+                        if (data.length != length) data = new int[length];
+                        readInts(channel, buffer, data, 0, length);
+                        if (algorithm < 0 || algorithm >= algorithms.length) {
+                            System.err.printf("Trabajador: algoritmo desconocido (%d)\n", algorithm);
+                            status = STATUS_ERROR;
+                        } else {
+                            long start = System.nanoTime();
+                            try {
+                                SortTask.sortArray(data, algorithms[algorithm], CancellationToken.NONE);
+                            } catch (RuntimeException | StackOverflowError e) {
+                                System.err.printf("Trabajador: fall %s (%s)\n", algorithms[algorithm].getDisplayName(), e);
+                                status = STATUS_ERROR;
+                            }
+                            sortNanos = System.nanoTime() - start;
+                        }
+                    }
+
+                    buffer.clear();
+                    buffer.putInt(MAGIC).putInt(status).putLong(sortNanos).putInt(status == STATUS_OK ? length : 0);
+                    writeInts(channel, buffer, data, 0, status == STATUS_OK ? length : 0);
+                    if (length < 0) return; // el flujo ya no est alineado
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            for (int w = 0; w < channels.size(); w++) {
+                ByteBuffer buffer = buffers.get(w);
+                buffer.clear();
+                buffer.putInt(MAGIC).putInt(OP_CLOSE).putInt(0).putInt(0).flip();
+                try (SocketChannel channel = channels.get(w)) {
+                    while (buffer.hasRemaining()) channel.write(buffer);
+                } catch (IOException e) {
+                    // la trabajadora ya no est; se destruye abajo
+                }
+            }
+            channels.clear();
+            for (Process process : processes) {
+                try {
+                    if (!process.waitFor(2, TimeUnit.SECONDS)) process.destroyForcibly();
+                } catch (InterruptedException e) {
+                    process.destroyForcibly();
+                    Thread.currentThread().interrupt();
+                }
+            }
+            processes.clear();
+            io.shutdownNow();
+        }
+
+        // Desglose de un ordenamiento repartido. La transferencia es el intercambio completo menos el
+        // ordenamiento remoto ms lento (los trabajadores corren a la vez).
+        public static final class Stats {
+            public final int elements;
+            public final int workers;
+            private final int[] partitionSizes;
+            private long partitionNanos;
+            private long transferNanos;
+            private long remoteSortNanos;
+            private long gatherNanos;
+            private long bytesTransferred;
+
+            Stats(int elements, int workers) {
+                this.elements = elements;
+                this.workers = workers;
+                this.partitionSizes = new int[workers];
+            }
+
+            public long getPartitionNanos() { return partitionNanos; }
+            public long getTransferNanos() { return transferNanos; }
+            public long getRemoteSortNanos() { return remoteSortNanos; }
+            public long getGatherNanos() { return gatherNanos; }
+            public long getBytesTransferred() { return bytesTransferred; }
+            public long getTotalNanos() { return partitionNanos + transferNanos + remoteSortNanos + gatherNanos; }
+            public int[] getPartitionSizes() { return partitionSizes.clone(); }
+
+            // particin ms grande sobre la ideal (n / workers); 1.0 es reparto perfecto
+            public double getImbalance() {
+                if (elements == 0) return 1.0;
+                int max = 0;
+                for (int size : partitionSizes) max = Math.max(max, size);
+                return max / ((double) elements / workers);
+            }
+        }
+    }
+
+    // Ordenamiento incremental para datos que llegan por partes. Cada lote se copia y se ordena al
+    // llegar (en el hilo que lo entrega) con un kernel de ARRAY y queda como una corrida ordenada.
+    // Un hilo de fondo mezcla las corridas de fanIn en fanIn, las ms cortas primero, as el nmero
+    // de corridas vivas se mantiene chico. La salida ordenada se recorre de forma perezosa con una
+    // mezcla de k vas sobre las corridas del momento, y los K menores o mayores salen de esa misma
+    // mezcla sacando solo K elementos, sin ordenar todo.
+    public static class StreamingSorter implements AutoCloseable {
+        public static final int DEFAULT_FAN_IN = 8;
+
+        private final SortAlgorithm kernel;
+        private final int fanIn;
+        private final ExecutorService merger;
+        // corridas ordenadas; no se modifican despus de agregarse, as las copias de la lista se pueden
+        // recorrer sin el candado. Todo el estado de abajo se protege con this.
+        private final List<int[]> runs = new ArrayList<>();
+        private boolean merging;
+        private long elements;
+        private long batches;
+        private int merges;
+        private long mergeNanos;
+
+        public StreamingSorter() {
+            this(SortAlgorithm.AUTO, DEFAULT_FAN_IN);
+        }
+
+        public StreamingSorter(SortAlgorithm algorithm, int fanIn) {
+            if (algorithm == SortAlgorithm.EXTERNAL_MERGE_SORT) {
+                throw new IllegalArgumentException("El ordenamiento incremental necesita un kernel en memoria");
+            }
+            if (fanIn < 2) throw new IllegalArgumentException("El fan-in debe ser al menos 2: " + fanIn);
+            this.kernel = algorithm;
+            this.fanIn = fanIn;
+            this.merger = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "mezcla-de-corridas");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        public void add(int[] batch) {
+            add(batch, 0, batch.length);
+        }
+
+        // copia y ordena batch[from, to); el arreglo del llamador no se toca
+        public void add(int[] batch, int from, int to) {
+            if (to <= from) return;
+            int[] run = Arrays.copyOfRange(batch, from, to);
+            // el despacho esttico no guarda estado, as que varios productores pueden ordenar a la vez
+            SortTask.sortArray(run, kernel, CancellationToken.NONE);
+            synchronized (this) {
+                runs.add(run);
+                elements += run.length;
+                batches++;
+                if (!merging && runs.size() >= fanIn && !merger.isShutdown()) {
+                    merging = true;
+                    merger.execute(this::mergeRuns);
+                }
+            }
+        }
+
+        private void mergeRuns() {
+            try {
+                while (true) {
+                    int[][] group;
+                    synchronized (this) {
+                        // se apaga en la misma seccin crtica que ve que no queda nada: un add() que
+                        // entre despus ya encuentra merging en false y programa otra vuelta
+                        if (runs.size() < fanIn) {
+                            merging = false;
+                            notifyAll();
+                            return;
+                        }
+                        group = runs.stream()
+                                .sorted(Comparator.comparingInt(run -> run.length))
+                                .limit(fanIn)
+                                .toArray(int[][]::new);
+                    }
+                    long start = System.nanoTime();
+                    int[] merged = new RunIterator(group, false).toArray();
+                    synchronized (this) {
+                        // las consultas siguen viendo las corridas originales hasta que se cambian por la mezcla
+                        for (int[] run : group) runs.remove(run);
+                        runs.add(merged);
+                        merges++;
+                        mergeNanos += System.nanoTime() - start;
+                    }
+                }
+            } catch (RuntimeException | OutOfMemoryError e) {
+                // las corridas siguen sin mezclar pero completas: las consultas todava funcionan
+                System.err.printf("ERROR en la mezcla de corridas (%s). Se dejan sin mezclar.\n", e);
+                // aunque la mezcla falle, awaitMerges() no debe quedarse esperando para siempre
+                synchronized (this) {
+                    merging = false;
+                    notifyAll();
+                }
+            }
+        }
+
+        // espera a que el hilo de fondo termine las mezclas pendientes
+        public synchronized void awaitMerges() throws InterruptedException {
+            while (merging) wait();
+        }
+
+        private synchronized int[][] snapshot() {
+            return runs.toArray(new int[0][]);
+        }
+
+        // Recorre de forma perezosa todo lo recibido hasta ahora, en orden ascendente
+        public RunIterator iterator() {
+            return new RunIterator(snapshot(), false);
+        }
+
+        public int[] toArray() {
+            return iterator().toArray();
+        }
+
+        // los k menores en orden ascendente
+        public int[] smallest(int k) {
+            return new RunIterator(snapshot(), false).next(k);
+        }
+
+        // los k mayores en orden descendente
+        public int[] largest(int k) {
+            return new RunIterator(snapshot(), true).next(k);
+        }
+
+        public synchronized long size() { return elements; }
+        public synchronized long getBatches() { return batches; }
+        public synchronized int getRunCount() { return runs.size(); }
+        public synchronized int getMerges() { return merges; }
+        public synchronized long getMergeNanos() { return mergeNanos; }
+
+        @Override
+        public void close() {
+            merger.shutdownNow();
+        }
+
+        // Mezcla de k vas perezosa sobre corridas ordenadas: heapKeys/heapRuns son un min-heap (las
+        // mismas rutinas del ordenamiento externo) con el valor actual de cada corrida. En orden
+        // descendente las corridas se leen desde el final y el heap guarda ~v, que invierte el orden
+        // sin desbordar.
+        public static final class RunIterator implements PrimitiveIterator.OfInt {
+            private final int[][] runs;
+            private final int[] positions;
+            private final int[] heapKeys;
+            private final int[] heapRuns;
+            private final boolean descending;
+            private int size;
+            private long remaining;
+
+            RunIterator(int[][] runs, boolean descending) {
+                this.runs = runs;
+                this.descending = descending;
+                this.positions = new int[runs.length];
+                this.heapKeys = new int[runs.length];
+                this.heapRuns = new int[runs.length];
+                for (int r = 0; r < runs.length; r++) {
+                    if (runs[r].length == 0) continue;
+                    heapKeys[size] = key(valueAt(r, 0));
+                    heapRuns[size] = r;
+                    ExternalSorter.siftUp(heapKeys, heapRuns, size++);
+                    remaining += runs[r].length;
+                }
+            }
+
+            private int valueAt(int r, int pos) {
+                int[] run = runs[r];
+                return descending ? run[run.length - 1 - pos] : run[pos];
+            }
+
+            private int key(int value) {
+                return descending ? ~value : value;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return size > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (size == 0) throw new NoSuchElementException();
+                int value = key(heapKeys[0]);
+                int r = heapRuns[0];
+                int pos = ++positions[r];
+                if (pos < runs[r].length) {
+                    heapKeys[0] = key(valueAt(r, pos));
+                } else {
+                    size--;
+                    heapKeys[0] = heapKeys[size];
+                    heapRuns[0] = heapRuns[size];
+                }
+                ExternalSorter.siftDown(heapKeys, heapRuns, 0, size);
+                remaining--;
+                return value;
+            }
+
+            // hasta k valores siguientes
+            public int[] next(int k) {
+                int[] out = new int[(int) Math.min(Math.max(k, 0), remaining)];
+                for (int i = 0; i < out.length; i++) out[i] = nextInt();
+                return out;
+            }
+
+            // todo lo que falta
+            public int[] toArray() {
+                if (remaining > Integer.MAX_VALUE - 8) throw new IllegalStateException("Demasiados elementos: " + remaining);
+                return next((int) remaining);
+            }
+        }
+    }
+
+    // Mtricas en vivo: registra cada SortTask como MBean (concurrentsortingproject:type=SortTask)
+    // para verla desde jconsole/VisualVM, y opcionalmente imprime cada intervalo una tabla con el
+    // throughput de la ltima ventana de las tareas que estn corriendo.
+    public static class LiveMetrics implements AutoCloseable {
+        public static final String DOMAIN = "concurrentsortingproject";
+
+        private final List<SortTask> tasks;
+        private final List<ObjectName> registered = new ArrayList<>();
+        private final long[] lastSorts;
+        private final long[] lastElements;
+        private ScheduledExecutorService reporter;
+        private long lastTickNanos;
+
+        public LiveMetrics(List<SortTask> tasks) {
+            this.tasks = tasks;
+            this.lastSorts = new long[tasks.size()];
+            this.lastElements = new long[tasks.size()];
+        }
+
+        public static ObjectName objectName(SortTask task) throws MalformedObjectNameException {
+            return new ObjectName(DOMAIN + ":type=SortTask,name=" + ObjectName.quote(task.getName()));
+        }
+
+        // Registra una MBean por tarea; si JMX falla se avisa y la corrida sigue sin mtricas
+        public void registerMBeans() {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (SortTask task : tasks) {
+                try {
+                    ObjectName name = objectName(task);
+                    if (server.isRegistered(name)) server.unregisterMBean(name);
+                    server.registerMBean(task, name);
+                    registered.add(name);
+                } catch (JMException e) {
+                    System.err.printf("No se pudo registrar la MBean de %s: %s\n", task.getName(), e.getMessage());
+                }
+            }
+        }
+
+        public int getRegisteredCount() { return registered.size(); }
+
+        // Imprime la tabla de progreso cada intervalMillis en un hilo daemon hasta close()
+        public void startReporter(long intervalMillis) {
+            lastTickNanos = System.nanoTime();
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "reporte-de-progreso");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(() -> printProgress(intervalMillis), intervalMillis, intervalMillis,
+                                         TimeUnit.MILLISECONDS);
+        }
+
+        // Una fila por tarea en curso. SORTS/S y ELEM/S son de la ltima ventana, no del acumulado,
+        // as que una tarea atorada se ve en 0 con EN CURSO creciendo.
+        private void printProgress(long intervalMillis) {
+            long now = System.nanoTime();
+            double seconds = Math.max(1e-9, (now - lastTickNanos) / 1e9);
+            lastTickNanos = now;
+            String format = "| %-48s | %-36s | %10s | %10s | %12s | %9s |\n";
+            StringBuilder table = new StringBuilder();
+            int running = 0, finished = 0;
+            double totalSortsPerSecond = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                SortTask task = tasks.get(i);
+                long sorts = task.getSortedCollectionsCount();
+                long elements = task.sortedElements.sum();
+                double sortsPerSecond = (sorts - lastSorts[i]) / seconds;
+                double elementsPerSecond = (elements - lastElements[i]) / seconds;
+                lastSorts[i] = sorts;
+                lastElements[i] = elements;
+                totalSortsPerSecond += sortsPerSecond;
+                if (!task.isRunning()) {
+                    if (task.getElapsedMillis() > 0) finished++;
+                    continue;
+                }
+                running++;
+                long currentMillis = task.getCurrentSortMillis();
+                String current = currentMillis > 2 * intervalMillis
+                        ? String.format("%d ms (!)", currentMillis) : String.format("%d ms", currentMillis);
+                table.append(String.format(format, task.getName(), task.getCurrentCollection(),
+                                           String.format("%.1f", sortsPerSecond),
+                                           String.format("%.2e", elementsPerSecond),
+                                           current, sorts));
+            }
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("\n [progreso] %d en curso, %d terminadas, %d pendientes; %.1f ordenamientos/s\n",
+                                     running, finished, tasks.size() - running - finished, totalSortsPerSecond));
+            if (running > 0) {
+                out.append(String.format(format, "ALGORITMO Y ESTRUCTURA", "COLECCIN ACTUAL", "SORTS/S", "ELEM/S", "EN CURSO", "TOTAL"));
+                out.append(table);
+            }
+            // un solo print para que las filas no se mezclen con otra salida
+            System.out.print(out);
+        }
+
+        @Override
+        public void close() {
+            if (reporter != null) reporter.shutdownNow();
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (ObjectName name : registered) {
+                try {
+                    server.unregisterMBean(name);
+                } catch (JMException e) {
+                    // ya no estaba registrada
+                }
+            }
+            registered.clear();
+        }
+    }
+
+    // Opciones de lnea de comandos con la forma --clave=valor
+    public static class LaunchOptions {
+        private final Map<String, String> values = new HashMap<>();
+
+        public static LaunchOptions parse(String[] args) {
+            LaunchOptions options = new LaunchOptions();
+            for (String arg : args) {
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Opcin invlida: " + arg);
+                }
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    options.values.put(arg.substring(2), "true");
+                } else {
+                    options.values.put(arg.substring(2, eq), arg.substring(eq + 1));
+                }
+            }
+            return options;
+        }
+
+        public boolean has(String key) {
+            return values.containsKey(key);
+        }
+
+        public String get(String key, String defaultValue) {
+            return values.getOrDefault(key, defaultValue);
+        }
+
+        public int getInt(String key, int defaultValue) {
+            String value = values.get(key);
+            if (value == null) return defaultValue;
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("--" + key + " espera un nmero: " + value);
+            }
+        }
+
+        public long getLong(String key, long defaultValue) {
+            String value = values.get(key);
+            if (value == null) return defaultValue;
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("--" + key + " espera un nmero: " + value);
+            }
+        }
+    }
+
+    // Modo de ejecucin de las tareas (--planificador=pool|virtual|aislado)
+    public enum SchedulerMode {
+        POOL("pool", "Pool fijo, un hilo por ncleo"),
+        VIRTUAL("virtual", "Un hilo virtual por tarea"),
+        ISOLATED("aislado", "Aislado, N tareas a la vez"),
+        PIPELINED("canalizado", "Canalizado: copia, orden y verificacin en hilos separados"),
+        PLANNED("planificado", "Planificado por modelo de costo");
+
+        private final String optionName;
+        private final String displayName;
+
+        SchedulerMode(String optionName, String displayName) {
+            this.optionName = optionName;
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public static SchedulerMode fromOption(String value) {
+            for (SchedulerMode mode : values()) {
+                if (mode.optionName.equalsIgnoreCase(value) || mode.name().equalsIgnoreCase(value)) return mode;
+            }
+            throw new IllegalArgumentException("Planificador desconocido: " + value + " (pool, virtual, aislado, canalizado o planificado)");
+        }
+    }
+
+    // Capa de planificacin: decide cuntas tareas corren a la vez y cunto tiempo le toca a cada una
+    // para que la prueba completa dure lo que pidi el usuario.
+    //  - POOL: pool fijo del tamao de los ncleos; cada tarea recibe duracin * hilos / tareas.
+    //  - VIRTUAL: todas las tareas a la vez con la duracin completa (como los hilos originales).
+    //  - ISOLATED: lotes de N tareas (1 por defecto) que corren solos, uno detrs de otro.
+    //  - PIPELINED: como POOL, pero cada tarea corre runPipelined(): su copiador y su verificador
+    //    van en hilos aparte, as que el pool solo cuenta a los ordenadores.
+    //  - PLANNED: como POOL, pero cada tarea corre runPlanned(): calibra un modelo de costo y solo
+    //    arranca los ordenamientos que predice que caben en lo que le queda de presupuesto.
+    public static class TaskScheduler {
+        private final SchedulerMode mode;
+        private final int concurrency;
+        private final int availableCores = Runtime.getRuntime().availableProcessors();
+        private final boolean virtualThreadsAvailable;
+
+        public TaskScheduler(SchedulerMode mode, int concurrency) {
+            this.mode = mode;
+            if (concurrency > 0) {
+                this.concurrency = concurrency;
+            } else {
+                this.concurrency = mode == SchedulerMode.ISOLATED ? 1 : availableCores;
+            }
+            ExecutorService probe = mode == SchedulerMode.VIRTUAL ? newVirtualThreadExecutor() : null;
+            this.virtualThreadsAvailable = probe != null;
+            if (probe != null) probe.shutdown();
+        }
+
+        public SchedulerMode getMode() { return mode; }
+        public int getAvailableCores() { return availableCores; }
+
+        // tareas que corren al mismo tiempo
+        public int parallelism(int taskCount) {
+            return mode == SchedulerMode.VIRTUAL ? taskCount : Math.min(concurrency, taskCount);
+        }
+
+        public long budgetPerTaskMillis(long totalDurationMillis, int taskCount) {
+            if (taskCount == 0) return totalDurationMillis;
+            switch (mode) {
+                case POOL:
+                case PIPELINED:
+                case PLANNED: return totalDurationMillis * parallelism(taskCount) / taskCount;
+                case ISOLATED: {
+                    int batches = (taskCount + parallelism(taskCount) - 1) / parallelism(taskCount);
+                    return totalDurationMillis / batches;
+                }
+                default: return totalDurationMillis;
+            }
+        }
+
+        public void runAll(List<SortTask> tasks) throws InterruptedException {
+            switch (mode) {
+                case POOL: {
+                    ExecutorService pool = Executors.newFixedThreadPool(parallelism(tasks.size()));
+                    runOn(pool, tasks);
+                    break;
+                }
+                case PIPELINED: {
+                    ExecutorService pool = Executors.newFixedThreadPool(parallelism(tasks.size()));
+                    runOn(pool, tasks, task -> task::runPipelined);
+                    break;
+                }
+                case PLANNED: {
+                    ExecutorService pool = Executors.newFixedThreadPool(parallelism(tasks.size()));
+                    runOn(pool, tasks, task -> task::runPlanned);
+                    break;
+                }
+                case VIRTUAL:
+                    if (virtualThreadsAvailable) {
+                        runOn(newVirtualThreadExecutor(), tasks);
+                    } else {
+                        runOn(Executors.newCachedThreadPool(), tasks);
+                    }
+                    break;
+                case ISOLATED: {
+                    int batchSize = parallelism(tasks.size());
+                    for (int from = 0; from < tasks.size(); from += batchSize) {
+                        List<SortTask> batch = tasks.subList(from, Math.min(from + batchSize, tasks.size()));
+                        runOn(Executors.newFixedThreadPool(batch.size()), batch);
+                    }
+                    break;
+                }
+            }
+        }
+
+        private static void runOn(ExecutorService executor, List<SortTask> tasks) throws InterruptedException {
+            runOn(executor, tasks, task -> task);
+        }
+
+        // body elige qu variante de la tarea corre en el executor (run, runPipelined o runPlanned)
+        private static void runOn(ExecutorService executor, List<SortTask> tasks,
+                                  Function<SortTask, Runnable> body) throws InterruptedException {
+            try {
+                for (SortTask task : tasks) {
+                    executor.execute(body.apply(task));
+                }
+            } finally {
+                executor.shutdown();
+            }
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // las tareas terminan solas al llegar a su fecha lmite
+            }
+        }
+
+        // Executors.newVirtualThreadPerTaskExecutor() existe desde Java 21 (antes solo como preview);
+        // si no est, se usa un hilo de plataforma por tarea y el reporte lo indica.
+        private static ExecutorService newVirtualThreadExecutor() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+                return null;
+            }
+        }
+
+        public String describe(int taskCount) {
+            String description;
+            switch (mode) {
+                case POOL:
+                    description = String.format("%s (%d hilos)", mode.getDisplayName(), parallelism(taskCount));
+                    break;
+                case ISOLATED:
+                    description = String.format("Aislado, %d tarea(s) a la vez", parallelism(taskCount));
+                    break;
+                case PIPELINED:
+                    description = String.format("%s (%d ordenadores)", mode.getDisplayName(), parallelism(taskCount));
+                    break;
+                case PLANNED:
+                    description = String.format("%s (%d hilos)", mode.getDisplayName(), parallelism(taskCount));
+                    break;
+                default:
+                    description = virtualThreadsAvailable
+                            ? mode.getDisplayName()
+                            : "Un hilo de plataforma por tarea (sin hilos virtuales en esta JVM)";
+                    break;
+            }
+            return String.format("%s | Ncleos disponibles: %d", description, availableCores);
         }
+    }
 
-        public long getSortedCollectionsCount() { return sortedCollectionsCount; }
-        public long getTotalExecutionTimeMillis() { return totalExecutionTimeMillis; }
-        public SortType getSortType() { return sortType; }
+    // Modelo de costo del planificador "planificado": copia + orden = constante  f(n), con f segn el
+    // algoritmo (n los cuadrticos, n + k counting y radix, n log n el resto). La constante se calibra
+    // por tarea, dentro del mismo pool, con sondas cortas sobre una muestra de la coleccin ms grande:
+    // as ya incluye el costo de la estructura (el empaquetado de ARRAY_LIST) y la competencia por
+    // ncleos. No ve el preorden de los datos, as que insertion sort sobre datos casi ordenados sale
+    // muy por debajo de lo predicho; para eso el reporte pone lo predicho junto a lo real.
+    public static final class CostModel {
+        public enum Growth {
+            QUADRATIC("n"),
+            LINEARITHMIC("n log n"),
+            LINEAR("n + k");
 
-        public double getAverageTimePerSort() {
-            if (sortedCollectionsCount == 0) return 0;
-            return (double) totalExecutionTimeMillis / sortedCollectionsCount;
-        }
+            private final String displayName;
 
-        @Override
-        public void run() {
-            List<DataCollection> collections = generator.getAllCollections();
-            int collectionIndex = 0;
+            Growth(String displayName) {
+                this.displayName = displayName;
+            }
 
-            // El hilo anda en bucle hasta que se cumpla la restriccin de tiempo si quiere pq nunca jala
-            while (System.currentTimeMillis() < startTimeMillis + durationMillis) {
-                DataCollection currentCollection = collections.get(collectionIndex % collections.size());
-                long start = System.currentTimeMillis();
+            public String getDisplayName() {
+                return displayName;
+            }
 
-                try {
-                    // Decide si usar Array o ArrayList
-                    if (sortType.structure == DataStructure.ARRAY) {
-                        int[] dataToSort = currentCollection.getArrayCopy();
-                        executeArraySort(dataToSort, sortType.algorithm);
-                    } else { 
-                        List<Integer> dataToSort = currentCollection.getArrayListCopy();
-                        executeListSort(dataToSort, sortType.algorithm);
-                    }
-                } catch (StackOverflowError e) {
-                    System.err.printf("ERROR en Hilo %s: StackOverflow (Recursin profunda). Terminando hilo.\n", sortType.uniqueName);
-                    break; 
-                } catch (IndexOutOfBoundsException e) { 
-                    System.err.printf("ERROR en Hilo %s: Fallo de ndice en la particin de QuickSort (%s). Terminando hilo.\n", sortType.uniqueName, e.getMessage());
-                    break;
-                } catch (Exception e) {
-                    System.err.printf("ERROR en Hilo %s: Excepcin inesperada (%s). Terminando hilo.\n", sortType.uniqueName, e.getMessage());
-                    break;
+            double work(long n, long k) {
+                switch (this) {
+                    case QUADRATIC: return (double) n * n;
+                    case LINEARITHMIC: return n * Math.max(1.0, Math.log(n) / Math.log(2));
+                    default: return n + k;
                 }
+            }
+        }
 
-                long end = System.currentTimeMillis();
-                long sortTime = end - start;
+        // una sonda ms corta que esto queda dominada por el ruido del reloj y el JIT
+        static final long PROBE_TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+        static final int MIN_PROBE_SIZE = 256;
+        static final int PROBE_REPEATS = 3;
 
-                if (end < startTimeMillis + durationMillis) {
-                    totalExecutionTimeMillis += sortTime;
-                    sortedCollectionsCount++;
-                }
+        private final SortAlgorithm algorithm;
+        private final Growth growth;
+        private final double nanosPerUnit;
+        private final int probeSize;
+        private final int probes;
+        private final long calibrationNanos;
 
-                collectionIndex++;
-            }
+        private CostModel(SortAlgorithm algorithm, double nanosPerUnit, int probeSize, int probes, long calibrationNanos) {
+            this.algorithm = algorithm;
+            this.growth = growthOf(algorithm);
+            this.nanosPerUnit = nanosPerUnit;
+            this.probeSize = probeSize;
+            this.probes = probes;
+            this.calibrationNanos = calibrationNanos;
         }
-        
-       //5. Implementacin de algoritmos (Array y ArrayList)
-        private void executeArraySort(int[] arr, SortAlgorithm algo) {
-            switch (algo) {
-                case BUBBLE_SORT: bubbleSort(arr); break;
-                case SELECTION_SORT: selectionSort(arr); break;
-                case INSERTION_SORT: insertionSort(arr); break;
-                case MERGE_SORT: mergeSort(arr, 0, arr.length - 1); break;
-                case QUICK_SORT: 
-                    if (arr.length > 1) quickSortIterative(arr, 0, arr.length - 1); 
-                    break;
+
+        public static Growth growthOf(SortAlgorithm algorithm) {
+            switch (algorithm) {
+                case BUBBLE_SORT:
+                case SELECTION_SORT:
+                case INSERTION_SORT: return Growth.QUADRATIC;
                 case COUNTING_SORT:
-                    int maxVal = 0;
-                    for (int val : arr) { if (val > maxVal) maxVal = val; }
-                    countingSort(arr, maxVal);
-                    break;
+                case RADIX_SORT:
+                case PARALLEL_RADIX_SORT: return Growth.LINEAR;
+                default: return Growth.LINEARITHMIC;
             }
         }
 
-        
-        private void executeListSort(List<Integer> list, SortAlgorithm algo) {
-            switch (algo) {
-                case BUBBLE_SORT: bubbleSort(list); break;
-                case SELECTION_SORT: selectionSort(list); break;
-                case INSERTION_SORT: insertionSort(list); break;
-                case MERGE_SORT: mergeSortList(list, 0, list.size() - 1); break;
-                case QUICK_SORT: 
-                    if (list.size() > 1) quickSortListIterative(list, 0, list.size() - 1); 
-                    break;
-                case COUNTING_SORT:
-                    int maxVal = list.stream().mapToInt(v -> v).max().orElse(0); 
-                    countingSortList(list, maxVal);
-                    break;
+        // Duplica el tamao de la sonda hasta que la mejor de PROBE_REPEATS corridas tarde
+        // PROBE_TARGET_NANOS (o se acabe la coleccin o maxNanos). Se toma la mejor porque las
+        // primeras corridas todava pagan el intrprete y la compilacin del JIT.
+        public static CostModel calibrate(SortTask task, List<DataCollection> collections, long maxNanos) {
+            DataCollection largest = collections.get(0);
+            for (DataCollection collection : collections) {
+                if (collection.size() > largest.size()) largest = collection;
             }
-        }
-        
-        
-      
-        
-        private void bubbleSort(int[] arr) { 
-            int n = arr.length;
-            for (int i = 0; i < n - 1; i++) {
-                for (int j = 0; j < n - i - 1; j++) {
-                    if (arr[j] > arr[j + 1]) { swap(arr, j, j + 1); }
+            long start = System.nanoTime();
+            int size = Math.min(MIN_PROBE_SIZE, largest.size());
+            int probes = 0;
+            DataCollection probe;
+            long best;
+            while (true) {
+                probe = sample(largest, size);
+                Object copy = null;
+                best = Long.MAX_VALUE;
+                for (int i = 0; i < PROBE_REPEATS && (i == 0 || System.nanoTime() - start < maxNanos); i++) {
+                    long probeStart = System.nanoTime();
+                    copy = task.prepareCopy(probe, copy);
+                    task.sortCopy(copy);
+                    best = Math.min(best, System.nanoTime() - probeStart);
+                    probes++;
                 }
+                if (best >= PROBE_TARGET_NANOS || size >= largest.size() || System.nanoTime() - start >= maxNanos) break;
+                size = (int) Math.min(largest.size(), 2L * size);
             }
+            SortAlgorithm algorithm = task.getSortType().algorithm;
+            double work = growthOf(algorithm).work(size, keyRange(algorithm, probe));
+            return new CostModel(algorithm, Math.max(best, 1) / Math.max(work, 1), size, probes, System.nanoTime() - start);
         }
 
-        private void selectionSort(int[] arr) { 
-            int n = arr.length;
-            for (int i = 0; i < n - 1; i++) {
-                int min_idx = i;
-                for (int j = i + 1; j < n; j++) {
-                    if (arr[j] < arr[min_idx]) { min_idx = j; }
-                }
-                swap(arr, min_idx, i);
+        // k del modelo n + k: el rango de valores para counting sort; radix no depende del rango
+        static long keyRange(SortAlgorithm algorithm, DataCollection collection) {
+            if (algorithm != SortAlgorithm.COUNTING_SORT || collection.size() == 0) return 0;
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (int i = 0; i < collection.size(); i++) {
+                int value = collection.get(i);
+                if (value < min) min = value;
+                if (value > max) max = value;
             }
+            return (long) max - min + 1;
         }
 
-        private void insertionSort(int[] arr) { 
-            int n = arr.length;
-            for (int i = 1; i < n; ++i) {
-                int key = arr[i];
-                int j = i - 1;
-                while (j >= 0 && arr[j] > key) {
-                    arr[j + 1] = arr[j];
-                    j = j - 1;
-                }
-                arr[j + 1] = key;
+        // Muestra a paso fijo de size elementos: conserva la distribucin de valores de la coleccin
+        static DataCollection sample(DataCollection collection, int size) {
+            int n = collection.size();
+            if (size >= n) return collection;
+            int[] values = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = collection.get((int) ((long) i * n / size));
             }
+            return new DataCollection(String.format("%s (muestra de %,d)", collection.name, size), values);
         }
 
-        private void mergeSort(int[] arr, int l, int r) { 
-            if (l < r) {
-                int m = (l + r) / 2;
-                mergeSort(arr, l, m);
-                mergeSort(arr, m + 1, r);
-                merge(arr, l, m, r);
+        public double predictNanos(int n, long k) {
+            return nanosPerUnit * growth.work(n, k);
+        }
+
+        public double predictNanos(DataCollection collection) {
+            return predictNanos(collection.size(), keyRange(algorithm, collection));
+        }
+
+        // el n ms grande (hasta maxSize) cuyo costo predicho no pasa de nanos, o 0 si ninguno cabe
+        public int largestSizeWithin(double nanos, long k, int maxSize) {
+            int low = 0, high = maxSize;
+            while (low < high) {
+                int mid = (int) (((long) low + high + 1) >>> 1);
+                if (predictNanos(mid, k) <= nanos) low = mid; else high = mid - 1;
             }
+            return low;
         }
-        private void merge(int[] arr, int l, int m, int r) { 
-            int n1 = m - l + 1;
-            int n2 = r - m;
-            int[] L = new int[n1];
-            int[] R = new int[n2];
-            for (int i = 0; i < n1; ++i) L[i] = arr[l + i];
-            for (int j = 0; j < n2; ++j) R[j] = arr[m + 1 + j];
-            int i = 0, j = 0;
-            int k = l;
-            while (i < n1 && j < n2) {
-                if (L[i] <= R[j]) { arr[k] = L[i]; i++; } else { arr[k] = R[j]; j++; }
-                k++;
+
+        public Growth getGrowth() { return growth; }
+        public double getNanosPerUnit() { return nanosPerUnit; }
+        public int getProbeSize() { return probeSize; }
+        public int getProbes() { return probes; }
+        public long getCalibrationNanos() { return calibrationNanos; }
+    }
+
+    // Plan de una tarea en modo planificado: qu colecciones ordenar completas, cules con una muestra
+    // y cules saltar. Ordenar primero las ms baratas maximiza cuntas se completan; si no caben
+    // todas, cada una de las que sobran recibe una muestra de a lo ms SAMPLE_SHARE del presupuesto,
+    // as que la tarea deja una medicin de esa coleccin en lugar de un corte a medias y el resto
+    // del tiempo sigue repitiendo ordenamientos completos.
+    public static final class SortPlan {
+        public enum Action {
+            FULL("completa"),
+            SAMPLE("muestra"),
+            SKIP("saltada");
+
+            private final String displayName;
+
+            Action(String displayName) {
+                this.displayName = displayName;
+            }
+
+            public String getDisplayName() {
+                return displayName;
             }
-            while (i < n1) { arr[k] = L[i]; i++; k++; }
-            while (j < n2) { arr[k] = R[j]; j++; k++; }
         }
 
-        /**
-         
-         */
-        private void quickSortIterative(int[] arr, int low, int high) {
-            Stack<Integer> stack = new Stack<>();
-            stack.push(low);
-            stack.push(high);
-
-            while (!stack.isEmpty()) {
-                high = stack.pop();
-                low = stack.pop();
-
-                if (low < high) {
-                    
-                    int pivotIndex = low + RANDOM.nextInt(high - low + 1);
-                    swap(arr, pivotIndex, high); 
-                    
-                    int pi = partition(arr, low, high);
-
-                    
-                    if (pi - 1 - low > high - (pi + 1)) {
-                        stack.push(low);
-                        stack.push(pi - 1);
-                        stack.push(pi + 1);
-                        stack.push(high);
-                    } else {
-                        stack.push(pi + 1);
-                        stack.push(high);
-                        stack.push(low);
-                        stack.push(pi - 1);
-                    }
-                }
+        public static final class Entry {
+            public final int collection;
+            public final Action action;
+            // elementos que se ordenan: la coleccin completa o el tamao de la muestra
+            public final int size;
+            public final double predictedNanos;
+            // solo SAMPLE: tiempo real de la muestra, -1 si no se lleg a ordenar (las completas
+            // quedan en los histogramas de la tarea)
+            volatile long sampleNanos = -1;
+
+            Entry(int collection, Action action, int size, double predictedNanos) {
+                this.collection = collection;
+                this.action = action;
+                this.size = size;
+                this.predictedNanos = predictedNanos;
             }
+
+            public long getSampleNanos() { return sampleNanos; }
         }
 
-        
-        private int partition(int[] arr, int low, int high) { 
-            int pivot = arr[high];
-            int i = (low - 1); 
-            for (int j = low; j < high; j++) {
-                if (arr[j] <= pivot) {
-                    i++;
-                    swap(arr, i, j);
+        // holgura sobre lo predicho antes de arrancar un ordenamiento: el modelo se equivoca
+        static final double MARGIN = 1.2;
+        static final double SAMPLE_SHARE = 0.1;
+        static final int MIN_SAMPLE_SIZE = 1000;
+
+        private final CostModel model;
+        private final long budgetNanos;
+        private final List<Entry> entries;
+
+        private SortPlan(CostModel model, long budgetNanos, List<Entry> entries) {
+            this.model = model;
+            this.budgetNanos = budgetNanos;
+            this.entries = entries;
+        }
+
+        public static SortPlan build(CostModel model, List<DataCollection> collections, long budgetNanos) {
+            double[] predicted = new double[collections.size()];
+            long[] keyRanges = new long[collections.size()];
+            List<Integer> order = new ArrayList<>();
+            double total = 0;
+            for (int i = 0; i < predicted.length; i++) {
+                keyRanges[i] = CostModel.keyRange(model.algorithm, collections.get(i));
+                predicted[i] = model.predictNanos(collections.get(i).size(), keyRanges[i]);
+                total += predicted[i] * MARGIN;
+                order.add(i);
+            }
+            order.sort(Comparator.comparingDouble(i -> predicted[i]));
+
+            double sampleBudget = budgetNanos * SAMPLE_SHARE;
+            double fullBudget = total <= budgetNanos ? budgetNanos : budgetNanos - sampleBudget;
+            double used = 0;
+            boolean[] full = new boolean[predicted.length];
+            for (int i : order) {
+                if (used + predicted[i] * MARGIN > fullBudget) break;
+                used += predicted[i] * MARGIN;
+                full[i] = true;
+            }
+
+            double left = budgetNanos - used;
+            List<Entry> entries = new ArrayList<>();
+            for (int i : order) {
+                if (full[i]) {
+                    entries.add(new Entry(i, Action.FULL, collections.get(i).size(), predicted[i]));
+                    continue;
+                }
+                double allowed = Math.min(left, sampleBudget) / MARGIN;
+                int size = model.largestSizeWithin(allowed, keyRanges[i], collections.get(i).size() - 1);
+                if (size >= MIN_SAMPLE_SIZE) {
+                    double cost = model.predictNanos(size, keyRanges[i]);
+                    left -= cost * MARGIN;
+                    entries.add(new Entry(i, Action.SAMPLE, size, cost));
+                } else {
+                    entries.add(new Entry(i, Action.SKIP, collections.get(i).size(), predicted[i]));
                 }
             }
-            swap(arr, i + 1, high);
-            return i + 1;
+            return new SortPlan(model, budgetNanos, Collections.unmodifiableList(entries));
         }
 
-        private void countingSort(int[] arr, int maxVal) { 
-            if (arr.length == 0 || maxVal <= 0) return;
-            int[] count = new int[maxVal + 1];
-            int[] output = new int[arr.length];
-            for (int i = 0; i < arr.length; i++) { if (arr[i] >= 0 && arr[i] <= maxVal) count[arr[i]]++; }
-            for (int i = 1; i < count.length; i++) { count[i] += count[i - 1]; }
-            for (int i = arr.length - 1; i >= 0; i--) { output[count[arr[i]] - 1] = arr[i]; count[arr[i]]--; }
-            for (int i = 0; i < arr.length; i++) { arr[i] = output[i]; }
+        public boolean fits(Entry entry, long remainingNanos) {
+            return entry.predictedNanos * MARGIN <= remainingNanos;
         }
-        
-        private void swap(int[] arr, int i, int j) {
-            int temp = arr[i];
-            arr[i] = arr[j];
-            arr[j] = temp;
+
+        public long count(Action action) {
+            return entries.stream().filter(e -> e.action == action).count();
         }
 
-       
-        private void bubbleSort(List<Integer> list) {
-            int n = list.size();
-            for (int i = 0; i < n - 1; i++) {
-                for (int j = 0; j < n - i - 1; j++) {
-                    if (list.get(j) > list.get(j + 1)) {
-                        Collections.swap(list, j, j + 1);
-                    }
-                }
-            }
+        public CostModel getModel() { return model; }
+        public long getBudgetNanos() { return budgetNanos; }
+        public List<Entry> getEntries() { return entries; }
+    }
+
+    // Modo --externo: ordena un archivo binario de int (big-endian) sin cargarlo completo en el heap
+    private static void sortExternalFile(LaunchOptions options) {
+        Path input = Paths.get(options.get("externo", ""));
+        Path output = Paths.get(options.get("salida", input + ".ordenado"));
+        Path tempDir = output.toAbsolutePath().getParent();
+        ExternalSorter sorter = new ExternalSorter(options.getInt("bloque", ExternalSorter.defaultRunElements()),
+                                                   options.getInt("fan-in", ExternalSorter.DEFAULT_FAN_IN),
+                                                   tempDir);
+        System.out.printf("Ordenamiento externo de %s (bloques de %,d elementos, fan-in mximo %d)...\n",
+                          input, sorter.getRunElements(), sorter.getMaxFanIn());
+        try {
+            ExternalSorter.Stats stats = sorter.sort(input, output);
+            System.out.println("Resultado en " + output + ": " + stats);
+        } catch (IOException e) {
+            System.err.println("Error de E/S en el ordenamiento externo: " + e.getMessage());
         }
+    }
 
-        private void selectionSort(List<Integer> list) {
-            int n = list.size();
-            for (int i = 0; i < n - 1; i++) {
-                int min_idx = i;
-                for (int j = i + 1; j < n; j++) {
-                    if (list.get(j) < list.get(min_idx)) {
-                        min_idx = j;
-                    }
-                }
-                Collections.swap(list, min_idx, i);
-            }
+    // --trabajador=puerto: lo lanza DistributedSorter, no se usa a mano
+    private static void runWorker(int port) {
+        try {
+            DistributedSorter.runWorker(port);
+        } catch (IOException e) {
+            System.err.println("Error de E/S en el trabajador: " + e.getMessage());
         }
+    }
 
-        private void insertionSort(List<Integer> list) {
-            int n = list.size();
-            for (int i = 1; i < n; ++i) {
-                int key = list.get(i);
-                int j = i - 1;
-                while (j >= 0 && list.get(j) > key) {
-                    list.set(j + 1, list.get(j));
-                    j = j - 1;
-                }
-                list.set(j + 1, key);
+    private static int parseBatchNumber(String text) {
+        try {
+            int value = Integer.parseInt(text.trim());
+            if (value < 0) throw new IllegalArgumentException("Nmero negativo en --lotes: " + text);
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nmero invlido en --lotes: " + text);
+        }
+    }
+
+    // Modo por lotes: arreglos por segundo de las redes de ordenamiento contra cada kernel
+    // de ARRAY aplicado arreglo por arreglo. Se toma la mejor de REPEATS pasadas sobre el lote.
+    private static void reportBatchMode(BatchCollection batch) {
+        final int repeats = 5;
+        Map<String, Long> bestNanos = new HashMap<>();
+        int[][] copies = null;
+        for (SortAlgorithm algo : SortAlgorithm.values()) {
+            if (algo == SortAlgorithm.EXTERNAL_MERGE_SORT) continue; // un archivo temporal por arreglo
+            SortTask task = new SortTask(new SortType(algo, DataStructure.ARRAY), 0, null);
+            long best = Long.MAX_VALUE;
+            for (int r = 0; r < repeats; r++) {
+                copies = batch.copyInto(copies);
+                long start = System.nanoTime();
+                for (int[] array : copies) task.sortCopy(array);
+                best = Math.min(best, System.nanoTime() - start);
             }
+            bestNanos.put(algo.getDisplayName() + " (uno por uno)", best);
         }
+        long sequential = Long.MAX_VALUE, parallel = Long.MAX_VALUE;
+        for (int r = 0; r < repeats; r++) {
+            copies = batch.copyInto(copies);
+            long start = System.nanoTime();
+            SortingNetworks.sortAllSequential(copies);
+            sequential = Math.min(sequential, System.nanoTime() - start);
+            copies = batch.copyInto(copies);
+            start = System.nanoTime();
+            SortingNetworks.sortAll(copies);
+            parallel = Math.min(parallel, System.nanoTime() - start);
+        }
+        bestNanos.put("Redes de ordenamiento (lote secuencial)", sequential);
+        bestNanos.put("Redes de ordenamiento (lote paralelo)", parallel);
 
-        private void mergeSortList(List<Integer> list, int l, int r) {
-            if (l < r) {
-                int m = (l + r) / 2;
-                mergeSortList(list, l, m);
-                mergeSortList(list, m + 1, r);
-                mergeList(list, l, m, r);
+        System.out.printf("\n MODO POR LOTES (%s, mejor de %d pasadas):\n", batch.name, repeats);
+        System.out.printf("| %-55s | %12s | %15s |\n", "KERNEL", "LOTE (ms)", "ARREGLOS/S");
+        System.out.println("|---------------------------------------------------------|--------------|-----------------|");
+        bestNanos.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .forEach(e -> System.out.printf("| %-55s | %12.3f | %15.0f |\n",
+                                                e.getKey(), e.getValue() / 1e6,
+                                                batch.count() / (Math.max(e.getValue(), 1) / 1e9)));
+    }
+
+    // Tamao mximo por defecto de las colecciones en las comparaciones que corren despus de las
+    // tareas: cada una repite el ordenamiento varias veces y con 10M elementos tardara minutos
+    private static final int DEFAULT_COMPARISON_MAX = 1 << 21;
+
+    // Sample sort contra Arrays.parallelSort y contra el MERGE_SORT secuencial del proyecto en cada
+    // coleccin grande de hasta maxSize elementos. Corre despus de las tareas, con todos los ncleos
+    // libres; mejor de REPEATS.
+    private static void reportSampleSort(List<DataCollection> collections, int maxSize) {
+        final int repeats = 3;
+        SortTask mergeSort = new SortTask(new SortType(SortAlgorithm.MERGE_SORT, DataStructure.ARRAY), 0, null);
+        String format = "| %-40s | %12s | %14s | %12s | %10s | %10s |\n";
+        String separator = "|------------------------------------------|--------------|----------------|--------------"
+                + "|------------|------------|";
+        boolean header = false;
+        for (DataCollection collection : collections) {
+            if (collection.size() < SampleSort.PARALLEL_THRESHOLD || collection.size() > maxSize) continue;
+            if (!header) {
+                System.out.printf("\n SAMPLE SORT PARALELO (%d hilos, mejor de %d pasadas, hasta %d elementos):\n",
+                                  ForkJoinPool.getCommonPoolParallelism(), repeats, maxSize);
+                System.out.printf(format, "COLECCIN", "SAMPLE (ms)", "PARALLEL (ms)", "MERGE (ms)", "VS PARALL.", "VS MERGE");
+                System.out.println(separator);
+                header = true;
             }
+            long sample = bestOf(collection, repeats, SampleSort::sort);
+            long parallel = bestOf(collection, repeats, Arrays::parallelSort);
+            long merge = bestOf(collection, repeats, mergeSort::sortCopy);
+            System.out.printf(format, collection.name,
+                              String.format("%.3f", sample / 1e6),
+                              String.format("%.3f", parallel / 1e6),
+                              String.format("%.3f", merge / 1e6),
+                              String.format("x%.2f", (double) parallel / sample),
+                              String.format("x%.2f", (double) merge / sample));
         }
+        if (header) System.out.println(separator);
+    }
 
-        private void mergeList(List<Integer> list, int l, int m, int r) {
-            List<Integer> temp = new ArrayList<>(r - l + 1);
-            int i = l, j = m + 1;
+    // Una fila por tarea del modo canalizado. COPIA, ORDEN y VERIFICACIN son elementos por segundo
+    // de tiempo ocupado de cada etapa; SOSTENIDO es lo que el ordenador sac sobre toda su duracin,
+    // que es la cifra que importa si las otras etapas lo alimentan a tiempo. Las colas son
+    // ocupacin promedio/mxima sobre la capacidad.
+    private static void reportPipeline(List<SortTask> tasks) {
+        String format = "| %-48s | %10s | %10s | %10s | %12s | %11s | %11s | %7s |\n";
+        String separator = "|--------------------------------------------------|------------|------------|------------"
+                + "|--------------|-------------|-------------|---------|";
+        System.out.println("\n MODO CANALIZADO (elementos/s por etapa, ocupacin de colas):");
+        System.out.printf(format, "ALGORITMO Y ESTRUCTURA", "COPIA", "ORDEN", "SOSTENIDO", "VERIFICACIN",
+                          "COLA LISTAS", "COLA VERIF.", "FALLAS");
+        System.out.println(separator);
+        long failures = 0;
+        for (SortTask task : tasks) {
+            PipelineStats stats = task.getPipelineStats();
+            if (stats == null) continue;
+            BoundedQueue<?> ready = stats.getReadyQueue();
+            BoundedQueue<?> verify = stats.getVerifyQueue();
+            long elapsed = Math.max(1, task.getElapsedMillis());
+            System.out.printf(format, task.getSortType().uniqueName,
+                              String.format("%.2e", stats.getCopyElementsPerSecond()),
+                              String.format("%.2e", PipelineStats.perSecond(task.sortedElements.sum(), task.getTotalExecutionTimeNanos())),
+                              String.format("%.2e", task.sortedElements.sum() * 1000.0 / elapsed),
+                              String.format("%.2e", stats.getVerifyElementsPerSecond()),
+                              String.format("%.1f/%d (%d)", ready.getAverageOccupancy(), ready.getMaxOccupancy(), ready.capacity()),
+                              String.format("%.1f/%d (%d)", verify.getAverageOccupancy(), verify.getMaxOccupancy(), verify.capacity()),
+                              stats.getFailed());
+            failures += stats.getFailed();
+        }
+        System.out.println(separator);
+        System.out.println(failures == 0
+                ? " Verificacin: todas las salidas revisadas estn ordenadas y son permutacin de su entrada."
+                : String.format(" Verificacin: %d salidas con fallas (ver errores arriba).", failures));
+    }
 
-            while (i <= m && j <= r) {
-                if (list.get(i) <= list.get(j)) {
-                    temp.add(list.get(i));
-                    i++;
+    // Modo planificado: la calibracin de cada tarea y, por coleccin, lo que el modelo predijo contra
+    // lo que tard de verdad (promedio de los ordenamientos completos, o la nica corrida de la muestra)
+    private static void reportCostModel(List<SortTask> tasks) {
+        String calibrationFormat = "| %-48s | %-8s | %10s | %7s | %14s | %11s | %11s | %20s |\n";
+        String calibrationSeparator = "|--------------------------------------------------|----------|------------|---------"
+                + "|----------------|-------------|-------------|----------------------|";
+        System.out.println("\n MODO PLANIFICADO: CALIBRACIN DEL MODELO DE COSTO (copia + orden = constante  f(n)):");
+        System.out.printf(calibrationFormat, "ALGORITMO Y ESTRUCTURA", "MODELO", "SONDA (N)", "SONDAS",
+                          "NS / UNIDAD", "CALIB. (ms)", "PLAN (ms)", "COMPL./MUESTRA/SALTO");
+        System.out.println(calibrationSeparator);
+        for (SortTask task : tasks) {
+            SortPlan plan = task.getSortPlan();
+            if (plan == null) continue;
+            CostModel model = plan.getModel();
+            System.out.printf(calibrationFormat, task.getSortType().uniqueName,
+                              model.getGrowth().getDisplayName(),
+                              String.format("%,d", model.getProbeSize()),
+                              model.getProbes(),
+                              String.format("%.4e", model.getNanosPerUnit()),
+                              String.format("%.2f", model.getCalibrationNanos() / 1e6),
+                              String.format("%.1f", plan.getBudgetNanos() / 1e6),
+                              String.format("%d/%d/%d", plan.count(SortPlan.Action.FULL),
+                                            plan.count(SortPlan.Action.SAMPLE), plan.count(SortPlan.Action.SKIP)));
+        }
+        System.out.println(calibrationSeparator);
+
+        String format = "| %-48s | %-40s | %-9s | %11s | %7s | %13s | %13s | %8s |\n";
+        String separator = "|--------------------------------------------------|------------------------------------------"
+                + "|-----------|-------------|---------|---------------|---------------|----------|";
+        System.out.println("\n MODO PLANIFICADO: TIEMPO PREDICHO CONTRA REAL POR COLECCIN (ms):");
+        System.out.printf(format, "ALGORITMO Y ESTRUCTURA", "COLECCIN", "PLAN", "N", "SORTS", "PREDICHO", "REAL", "ERROR");
+        System.out.println(separator);
+        List<Double> errors = new ArrayList<>();
+        for (SortTask task : tasks) {
+            SortPlan plan = task.getSortPlan();
+            if (plan == null) continue;
+            for (SortPlan.Entry entry : plan.getEntries()) {
+                long runs;
+                double actualNanos;
+                if (entry.action == SortPlan.Action.SAMPLE) {
+                    runs = entry.getSampleNanos() < 0 ? 0 : 1;
+                    actualNanos = entry.getSampleNanos();
                 } else {
-                    temp.add(list.get(j));
-                    j++;
+                    LatencyHistogram h = task.getLatencies()[entry.collection];
+                    runs = h.getCount();
+                    actualNanos = runs == 0 ? -1 : (double) h.getTotalNanos() / runs;
                 }
+                String error = "-";
+                if (runs > 0) {
+                    double relative = (actualNanos - entry.predictedNanos) / entry.predictedNanos;
+                    errors.add(Math.abs(relative));
+                    error = String.format("%+.0f%%", relative * 100);
+                }
+                System.out.printf(format, task.getSortType().uniqueName,
+                                  task.getCollections().get(entry.collection).name,
+                                  entry.action.getDisplayName(),
+                                  String.format("%,d", entry.size),
+                                  runs,
+                                  String.format("%.3f", entry.predictedNanos / 1e6),
+                                  runs == 0 ? "-" : String.format("%.3f", actualNanos / 1e6),
+                                  error);
             }
+        }
+        System.out.println(separator);
+        if (!errors.isEmpty()) {
+            Collections.sort(errors);
+            System.out.printf(" Error absoluto del modelo: mediana %.0f%%, p90 %.0f%% (%d predicciones con tiempo real).\n",
+                              errors.get(errors.size() / 2) * 100,
+                              errors.get(Math.min(errors.size() - 1, (int) (errors.size() * 0.9))) * 100,
+                              errors.size());
+        }
+    }
 
-            while (i <= m) { temp.add(list.get(i)); i++; }
-            while (j <= r) { temp.add(list.get(j)); j++; }
+    // Carga desde instantneas contra generacin, por coleccin. La generacin es la que se anot
+    // al guardar la instantnea (puede venir de otra mquina); la carga separa el map() con la
+    // lectura del encabezado de la copia en bloque a int[].
+    private static void reportSnapshots(DatasetRegistry loaded) {
+        String format = "| %-40s | %-40s | %10s | %12s | %9s | %9s | %10s |\n";
+        String separator = "|------------------------------------------|------------------------------------------|------------"
+                + "|--------------|-----------|-----------|------------|";
+        System.out.println("\n INSTANTNEAS DE DATOS: CARGA CONTRA GENERACIN (ms):");
+        System.out.printf(format, "COLECCIN", "DISTRIBUCIN", "TAMAO", "GENERACIN", "MAP()", "COPIA", "VS GENERAR");
+        System.out.println(separator);
+        long generation = 0, load = 0;
+        for (int i = 0; i < loaded.size(); i++) {
+            DataCollection collection = loaded.getCollections().get(i);
+            long loadNanos = loaded.getMapNanos(i) + loaded.getCopyNanos(i);
+            generation += loaded.getCollectionGenerationNanos(i);
+            load += loadNanos;
+            System.out.printf(format, collection.name, loaded.getDistributionTag(i),
+                              formatBytes((double) collection.size() * Integer.BYTES),
+                              String.format("%.3f", loaded.getCollectionGenerationNanos(i) / 1e6),
+                              String.format("%.3f", loaded.getMapNanos(i) / 1e6),
+                              String.format("%.3f", loaded.getCopyNanos(i) / 1e6),
+                              String.format("x%.2f", (double) loaded.getCollectionGenerationNanos(i) / Math.max(loadNanos, 1)));
+        }
+        System.out.println(separator);
+        System.out.printf(" Total: generar %.1f ms, cargar %.1f ms (x%.2f).\n",
+                          generation / 1e6, load / 1e6, (double) generation / Math.max(load, 1));
+    }
 
-            for (int k = 0; k < temp.size(); k++) {
-                list.set(l + k, temp.get(k));
-            }
+    // bytes con unidad binaria (B, KiB, MiB, GiB)
+    private static String formatBytes(double bytes) {
+        String[] units = {"B", "KiB", "MiB", "GiB"};
+        int unit = 0;
+        while (bytes >= 1024 && unit < units.length - 1) {
+            bytes /= 1024;
+            unit++;
+        }
+        return unit == 0 ? String.format("%.0f %s", bytes, units[unit]) : String.format("%.1f %s", bytes, units[unit]);
+    }
+
+    // mejor tiempo de kernel sobre una copia fresca de la coleccin, en nanosegundos
+    private static long bestOf(DataCollection collection, int repeats, Consumer<int[]> kernel) {
+        return bestOf(repeats, collection::copyInto, kernel);
+    }
+
+    // copy recibe la copia anterior (o null) para reutilizarla, como DataCollection.copyInto
+    private static <T> long bestOf(int repeats, UnaryOperator<T> copy, Consumer<T> kernel) {
+        T data = null;
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < repeats; r++) {
+            data = copy.apply(data);
+            long start = System.nanoTime();
+            kernel.accept(data);
+            best = Math.min(best, System.nanoTime() - start);
         }
+        return best;
+    }
 
-        /**
-         * 
-         */
-        private void quickSortListIterative(List<Integer> list, int low, int high) {
-            Stack<Integer> stack = new Stack<>();
-            stack.push(low);
-            stack.push(high);
-
-            while (!stack.isEmpty()) {
-                high = stack.pop();
-                low = stack.pop();
-
-                if (low < high) {
-                    
-                    int pivotIndex = low + RANDOM.nextInt(high - low + 1);
-                    Collections.swap(list, pivotIndex, high); 
-                    
-                    int pi = partitionList(list, low, high);
-
-                    
-                    if (pi - 1 - low > high - (pi + 1)) {
-                        stack.push(low);
-                        stack.push(pi - 1);
-                        stack.push(pi + 1);
-                        stack.push(high);
-                    } else {
-                        stack.push(pi + 1);
-                        stack.push(high);
-                        stack.push(low);
-                        stack.push(pi - 1);
+    // Ordenamiento repartido entre JVM trabajadoras: de 1 a maxWorkers procesos (potencias de dos)
+    // con QUICK_SORT en cada una, contra el mismo kernel en este proceso. Cada fila es la mejor de
+    // REPEATS pasadas tras una de calentamiento; el desglose muestra dnde deja de escalar.
+    private static void reportDistributed(List<DataCollection> collections, int maxWorkers) {
+        final int repeats = 3;
+        final SortAlgorithm algorithm = SortAlgorithm.QUICK_SORT;
+        System.out.printf("\n ORDENAMIENTO DISTRIBUIDO (%s, hasta %d JVM trabajadoras en localhost, ms):\n",
+                          algorithm.getDisplayName(), maxWorkers);
+        try (DistributedSorter sorter = new DistributedSorter(maxWorkers)) {
+            System.out.printf(" Arranque y conexin de %d trabajadoras: %.1f ms\n",
+                              sorter.getWorkerCount(), sorter.getStartupNanos() / 1e6);
+            String format = "| %-40s | %5s | %9s | %13s | %12s | %8s | %9s | %9s | %10s | %6s |\n";
+            String separator = "|------------------------------------------|-------|-----------|---------------|--------------"
+                    + "|----------|-----------|-----------|------------|--------|";
+            System.out.printf(format, "COLECCIN", "JVMS", "PARTICIN", "TRANSFERENCIA", "ORDEN REMOTO",
+                              "REUNIN", "TOTAL", "LOCAL", "DESBALANCE", "OK");
+            System.out.println(separator);
+            SortTask local = new SortTask(new SortType(algorithm, DataStructure.ARRAY), 0, null);
+            for (DataCollection collection : collections) {
+                long localNanos = bestOf(collection, repeats, local::sortCopy);
+                long checksum = SortVerifier.checksum(collection);
+                int[] copy = null;
+                for (int workers = 1; workers <= maxWorkers; workers = workers == maxWorkers ? workers + 1
+                        : Math.min(workers * 2, maxWorkers)) {
+                    DistributedSorter.Stats best = null;
+                    boolean ok = true;
+                    for (int r = 0; r <= repeats; r++) {
+                        copy = collection.copyInto(copy);
+                        DistributedSorter.Stats stats = sorter.sort(copy, workers, algorithm);
+                        ok &= SortVerifier.isSorted(copy) && SortVerifier.checksum(copy) == checksum;
+                        if (r > 0 && (best == null || stats.getTotalNanos() < best.getTotalNanos())) best = stats;
                     }
+                    System.out.printf(format, collection.name, workers,
+                                      String.format("%.3f", best.getPartitionNanos() / 1e6),
+                                      String.format("%.3f", best.getTransferNanos() / 1e6),
+                                      String.format("%.3f", best.getRemoteSortNanos() / 1e6),
+                                      String.format("%.3f", best.getGatherNanos() / 1e6),
+                                      String.format("%.3f", best.getTotalNanos() / 1e6),
+                                      String.format("%.3f", localNanos / 1e6),
+                                      String.format("%.2f", best.getImbalance()),
+                                      ok ? "s" : "NO");
                 }
             }
+            System.out.println(separator);
+            System.out.println(" TRANSFERENCIA = intercambio completo menos el orden remoto ms lento; DESBALANCE = particin mayor / (n / JVMS).");
+        } catch (IOException e) {
+            System.err.println(" No se pudo completar el ordenamiento distribuido: " + e.getMessage());
         }
+    }
 
-       
-        private int partitionList(List<Integer> list, int low, int high) {
-            int pivot = list.get(high);
-            int i = (low - 1); 
+    // Registros ordenados por clave primitiva (KeySort) contra List.sort(Comparator), sobre registros
+    // hechos con cada coleccin de hasta maxSize elementos: por la marca de tiempo long y por el
+    // puntaje double. Ambos son estables, as que los resultados deben quedar idnticos registro por registro.
+    private static void reportKeySort(List<DataCollection> collections, int maxSize) {
+        final int repeats = 3;
+        String format = "| %-40s | %14s | %14s | %9s | %14s | %14s | %9s | %4s |\n";
+        String separator = "|------------------------------------------|----------------|----------------|-----------"
+                + "|----------------|----------------|-----------|------|";
+        System.out.printf("\n REGISTROS POR CLAVE PRIMITIVA CONTRA COMPARATOR (ms, mejor de %d pasadas, hasta %d elementos):\n",
+                          repeats, maxSize);
+        System.out.printf(format, "COLECCIN", "COMP. LONG", "CLAVE LONG", "SPEEDUP",
+                          "COMP. DOUBLE", "CLAVE DOUBLE", "SPEEDUP", "OK");
+        System.out.println(separator);
+        Comparator<KeyedRecord> byTimestamp = Comparator.comparingLong(r -> r.timestamp);
+        Comparator<KeyedRecord> byScore = Comparator.comparingDouble(r -> r.score);
+        for (DataCollection collection : collections) {
+            if (collection.size() > maxSize) continue;
+            List<KeyedRecord> records = KeyedRecord.fromCollection(collection);
+            UnaryOperator<List<KeyedRecord>> copy = previous -> new ArrayList<>(records);
+            long comparatorLong = bestOf(repeats, copy, list -> list.sort(byTimestamp));
+            long keyLong = bestOf(repeats, copy, list -> KeySort.sortByLong(list, r -> r.timestamp));
+            long comparatorDouble = bestOf(repeats, copy, list -> list.sort(byScore));
+            long keyDouble = bestOf(repeats, copy, list -> KeySort.sortByDouble(list, r -> r.score));
 
-            for (int j = low; j < high; j++) {
-                if (list.get(j) <= pivot) {
-                    i++;
-                    Collections.swap(list, i, j);
-                }
-            }
-            Collections.swap(list, i + 1, high);
-            return i + 1;
-        }
+            List<KeyedRecord> expected = copy.apply(null), actual = copy.apply(null);
+            expected.sort(byTimestamp);
+            KeySort.sortByLong(actual, r -> r.timestamp);
+            boolean ok = expected.equals(actual);
+            expected.sort(byScore);
+            KeySort.sortByDouble(actual, r -> r.score);
+            ok &= expected.equals(actual);
 
-        private void countingSortList(List<Integer> list, int maxVal) {
-             if (list.isEmpty() || maxVal <= 0) return;
+            System.out.printf(format, collection.name,
+                              String.format("%.3f", comparatorLong / 1e6),
+                              String.format("%.3f", keyLong / 1e6),
+                              String.format("x%.2f", (double) comparatorLong / Math.max(keyLong, 1)),
+                              String.format("%.3f", comparatorDouble / 1e6),
+                              String.format("%.3f", keyDouble / 1e6),
+                              String.format("x%.2f", (double) comparatorDouble / Math.max(keyDouble, 1)),
+                              ok ? "s" : "NO");
+        }
+        System.out.println(separator);
+    }
 
-            int[] count = new int[maxVal + 1];
-            
-            
-            for (int val : list) {
-                if (val >= 0 && val <= maxVal) count[val]++;
+    // Seleccin contra ordenar todo, en cada coleccin de hasta maxSize elementos y cada estructura
+    // (mejor de REPEATS): la mediana, P50/P90/P99 en una sola pasada y los 100 menores ordenados.
+    // Los nmeros finos los da SelectionBenchmark; esto es la vista rpida de la misma corrida.
+    private static void reportSelection(List<DataCollection> collections, int maxSize) {
+        final int repeats = 3;
+        final int k = 100;
+        final double[] percentiles = {50, 90, 99};
+        String format = "| %-40s | %-10s | %12s | %16s | %14s | %14s | %9s |\n";
+        String separator = "|------------------------------------------|------------|--------------|------------------"
+                + "|----------------|----------------|-----------|";
+        System.out.printf("\n SELECCIN CONTRA ORDENAMIENTO COMPLETO (ms, mejor de %d pasadas, hasta %d elementos):\n",
+                          repeats, maxSize);
+        System.out.printf(format, "COLECCIN", "ESTRUCTURA", "MEDIANA", "P50/P90/P99", k + " MENORES", "ORDEN COMPLETO", "VS ORDEN");
+        System.out.println(separator);
+        for (DataCollection collection : collections) {
+            if (collection.size() > maxSize) continue;
+            int median = collection.size() / 2;
+            for (DataStructure structure : DataStructure.values()) {
+                long select, multi, partial, full;
+                switch (structure) {
+                    case ARRAY: {
+                        UnaryOperator<int[]> copy = collection::copyInto;
+                        select = bestOf(repeats, copy, a -> Selection.select(a, median));
+                        multi = bestOf(repeats, copy, a -> Selection.percentiles(a, percentiles));
+                        partial = bestOf(repeats, copy, a -> Selection.partialSort(a, 0, a.length, k));
+                        full = bestOf(repeats, copy, IntroSort::sort);
+                        break;
+                    }
+                    case ARRAY_LIST: {
+                        UnaryOperator<List<Integer>> copy = collection::copyInto;
+                        select = bestOf(repeats, copy, l -> Selection.select(l, median));
+                        multi = bestOf(repeats, copy, l -> Selection.percentiles(l, percentiles));
+                        partial = bestOf(repeats, copy, l -> Selection.partialSort(l, k));
+                        full = bestOf(repeats, copy, IntroSort::sort);
+                        break;
+                    }
+                    default: {
+                        UnaryOperator<IntList> copy = collection::copyInto;
+                        select = bestOf(repeats, copy, l -> Selection.select(l, median));
+                        multi = bestOf(repeats, copy, l -> Selection.percentiles(l, percentiles));
+                        partial = bestOf(repeats, copy, l -> Selection.partialSort(l, k));
+                        full = bestOf(repeats, copy, IntList::sort);
+                        break;
+                    }
+                }
+                System.out.printf(format, collection.name, structure.name(),
+                                  String.format("%.3f", select / 1e6),
+                                  String.format("%.3f", multi / 1e6),
+                                  String.format("%.3f", partial / 1e6),
+                                  String.format("%.3f", full / 1e6),
+                                  String.format("x%.2f", (double) full / Math.max(select, 1)));
             }
+        }
+        System.out.println(separator);
+    }
 
-            
-            list.clear();
-            for (int i = 0; i < count.length; i++) {
-                for (int j = 0; j < count[i]; j++) {
-                    list.add(i);
+    // Modo incremental: cada coleccin llega en batchCount lotes a un StreamingSorter. Se mide cunto
+    // tarda la entrega de los lotes, cunto hay que esperar a las mezclas de fondo pendientes y, ya
+    // mezclado todo, cunto falta para tener el primer valor ordenado, los 100 menores y la salida completa.
+    private static void reportStreaming(List<DataCollection> collections, int batchCount) {
+        final int k = 100;
+        String format = "| %-40s | %6s | %13s | %12s | %8s | %7s | %16s | %16s | %13s |\n";
+        String separator = "|------------------------------------------|--------|---------------|--------------|----------"
+                + "|---------|------------------|------------------|---------------|";
+        System.out.printf("\n ORDENAMIENTO INCREMENTAL (%d lotes por coleccin, kernel %s, fan-in %d):\n",
+                          batchCount, SortAlgorithm.AUTO.getDisplayName(), StreamingSorter.DEFAULT_FAN_IN);
+        System.out.printf(format, "COLECCIN", "LOTES", "ENTREGA (ms)", "ESPERA (ms)", "CORRIDAS", "MEZCLAS",
+                          "1ER VALOR (us)", k + " MENORES (us)", "COMPLETO (ms)");
+        System.out.println(separator);
+        for (DataCollection collection : collections) {
+            int[] data = collection.getArrayCopy();
+            int batchSize = Math.max(1, (data.length + batchCount - 1) / batchCount);
+            try (StreamingSorter sorter = new StreamingSorter()) {
+                long start = System.nanoTime();
+                for (int from = 0; from < data.length; from += batchSize) {
+                    sorter.add(data, from, Math.min(data.length, from + batchSize));
                 }
+                long lastBatch = System.nanoTime();
+                // las mezclas de fondo se esperan para que CORRIDAS y MEZCLAS no dependan de cundo se leen
+                sorter.awaitMerges();
+                long mergesDone = System.nanoTime();
+                int runs = sorter.getRunCount();
+                int merges = sorter.getMerges();
+                sorter.iterator().nextInt();
+                long first = System.nanoTime();
+                sorter.smallest(k);
+                long smallest = System.nanoTime();
+                sorter.toArray();
+                long complete = System.nanoTime();
+                System.out.printf(format, collection.name, sorter.getBatches(),
+                                  String.format("%.3f", (lastBatch - start) / 1e6),
+                                  String.format("%.3f", (mergesDone - lastBatch) / 1e6),
+                                  runs, merges,
+                                  String.format("%.1f", (first - mergesDone) / 1e3),
+                                  String.format("%.1f", (smallest - first) / 1e3),
+                                  String.format("%.3f", (complete - smallest) / 1e6));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println(" El ordenamiento incremental fue interrumpido.");
+                break;
             }
         }
+        System.out.println(separator);
     }
+
 //6. Lgica Principal (main)
     // aqui la logica principal
     public static void main(String[] args) {
+        final TaskScheduler scheduler;
+        final long seed;
+        final List<DataSpec> specs;
+        final LaunchOptions options;
+        final int batchCount, batchLength;
+        final int streamBatches;
+        final int sampleSortMax, selectionMax, keySortMax;
+        final int progressSeconds;
+        final int distributedWorkers;
+        final Path loadDir, saveDir;
+        try {
+            options = LaunchOptions.parse(args);
+            scheduler = new TaskScheduler(SchedulerMode.fromOption(options.get("planificador", "pool")),
+                                          options.getInt("concurrencia", 0));
+            seed = options.getLong("semilla", DataGenerator.DEFAULT_SEED);
+            specs = options.has("datos") ? DataSpec.parseList(options.get("datos", "")) : DataSpec.defaults();
+            String[] batch = options.get("lotes", "10000:100").split(":");
+            if (batch.length != 2) throw new IllegalArgumentException("Lotes invlidos (cantidad:longitud): " + options.get("lotes", ""));
+            batchCount = parseBatchNumber(batch[0]);
+            batchLength = parseBatchNumber(batch[1]);
+            streamBatches = options.getInt("flujo", 64);
+            sampleSortMax = options.getInt("muestreo", DEFAULT_COMPARISON_MAX);
+            selectionMax = options.getInt("seleccion", DEFAULT_COMPARISON_MAX);
+            keySortMax = options.getInt("claves", DEFAULT_COMPARISON_MAX);
+            // --progreso solo equivale a cada segundo
+            progressSeconds = !options.has("progreso") ? 0
+                    : "true".equals(options.get("progreso", "")) ? 1 : options.getInt("progreso", 1);
+            distributedWorkers = options.getInt("distribuido", 0);
+            loadDir = options.has("cargar-datos") ? Paths.get(options.get("cargar-datos", "")) : null;
+            saveDir = options.has("guardar-datos") ? Paths.get(options.get("guardar-datos", "")) : null;
+            if (loadDir != null && options.has("datos")) {
+                throw new IllegalArgumentException("--cargar-datos y --datos se excluyen: las colecciones salen de las instantneas");
+            }
+            if (distributedWorkers < 0 || distributedWorkers > DistributedSorter.MAX_WORKERS) {
+                throw new IllegalArgumentException("--distribuido espera de 0 a " + DistributedSorter.MAX_WORKERS + " trabajadores");
+            }
+            if (options.has("trabajador")) {
+                runWorker(options.getInt("trabajador", 0));
+                return;
+            }
+            if (options.has("externo")) {
+                sortExternalFile(options);
+                return;
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: [--planificador=pool|virtual|aislado|canalizado|planificado] [--concurrencia=N] [--semilla=S]");
+            System.err.println("     [--datos=distribucion:tamao[:rango[:parametro]],...]");
+            System.err.println("     distribuciones: uniforme, ordenado, inverso, casi, organo, zipf");
+            System.err.println("     [--cargar-datos=dir] [--guardar-datos=dir] (instantneas binarias de las colecciones)");
+            System.err.println("     [--lotes=cantidad:longitud] (0:0 desactiva el modo por lotes)");
+            System.err.println("     [--flujo=lotes] (lotes por coleccin del modo incremental, 0 lo desactiva)");
+            System.err.println("     [--muestreo=N] (colecciones de hasta N elementos en la comparacin de sample sort, 0 la desactiva)");
+            System.err.println("     [--seleccion=N] (colecciones de hasta N elementos en la comparacin de seleccin, 0 la desactiva)");
+            System.err.println("     [--claves=N] (colecciones de hasta N elementos en la comparacin de registros por clave, 0 la desactiva)");
+            System.err.println("     [--progreso[=segundos]] (tabla de throughput en vivo; las MBeans JMX siempre se registran)");
+            System.err.println("     [--externo=entrada.bin [--salida=ruta] [--bloque=N] [--fan-in=N]]");
+            System.err.println("     [--distribuido=N] (ordenamiento repartido entre N JVM trabajadoras, 0 lo desactiva)");
+            System.err.println("     (los kernels SIMD necesitan java --add-modules jdk.incubator.vector)");
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
         System.out.println("=========================================================================");
-        System.out.println("         PROYECTO FINAL: ALGORITMOS CONCURRENTES (12 TAREAS)             ");
+        System.out.printf("         PROYECTO FINAL: ALGORITMOS CONCURRENTES (%d TAREAS)             \n",
+                          SortAlgorithm.values().length * DataStructure.values().length);
         System.out.println("=========================================================================");
         System.out.println("Adrian Razo Mandujano, Al03050102");
         System.out.println("Ariel Martnez, Al03005455");
@@ -527,44 +6134,68 @@ public class ConcurrentSortingProject {
 
         final long totalDurationMillis = TimeUnit.SECONDS.toMillis(durationSeconds);
         final long startTimeMillis = System.currentTimeMillis();
-        final DataGenerator generator = new DataGenerator();
+        final DatasetRegistry registry;
+        DatasetRegistry reloaded = null;
+        try {
+            if (loadDir != null) {
+                registry = DatasetRegistry.fromSnapshots(loadDir);
+                System.out.printf("Datos cargados de %d instantneas de %s en %.1f ms (semilla %d).\n",
+                                  registry.size(), loadDir, registry.getGenerationNanos() / 1e6, registry.getSeed());
+            } else {
+                registry = new DatasetRegistry(seed, specs);
+                System.out.printf("Datos generados una sola vez en %.1f ms (semilla %d).\n",
+                                  registry.getGenerationNanos() / 1e6, registry.getSeed());
+            }
+            if (saveDir != null) {
+                long saveStart = System.nanoTime();
+                List<Path> files = registry.saveSnapshots(saveDir);
+                System.out.printf("Instantneas guardadas en %s: %d archivos en %.1f ms.\n",
+                                  saveDir, files.size(), (System.nanoTime() - saveStart) / 1e6);
+                // se vuelven a cargar para comparar en el reporte carga contra generacin
+                if (loadDir == null) reloaded = DatasetRegistry.fromSnapshots(saveDir);
+            }
+        } catch (IOException e) {
+            System.err.println("Error de E/S con las instantneas de datos: " + e.getMessage());
+            scanner.close();
+            return;
+        }
 
         // Aqui empezamos con los 12 hilos en total
         List<SortType> sortTypes = new ArrayList<>();
         for (SortAlgorithm algo : SortAlgorithm.values()) {
-            sortTypes.add(new SortType(algo, DataStructure.ARRAY)); 
-            sortTypes.add(new SortType(algo, DataStructure.ARRAY_LIST));
+            for (DataStructure structure : DataStructure.values()) {
+                sortTypes.add(new SortType(algo, structure));
+            }
         }
         
         List<SortTask> tasks = new ArrayList<>();
-        List<Thread> threads = new ArrayList<>();
+        long budgetMillis = scheduler.budgetPerTaskMillis(totalDurationMillis, sortTypes.size());
 
         for (SortType type : sortTypes) {
-            SortTask task = new SortTask(type, startTimeMillis, totalDurationMillis, generator);
-            tasks.add(task);
-            threads.add(new Thread(task, type.uniqueName));
+            tasks.add(new SortTask(type, budgetMillis, registry));
         }
 
-        System.out.println("\nIniciando la ejecucin concurrente de las 12 tareas...");
-        System.out.printf("Tiempo total de prueba: %d segundos.\n", durationSeconds);
+        System.out.printf("\nIniciando la ejecucin concurrente de las %d tareas...\n", tasks.size());
+        System.out.printf("Tiempo total de prueba: %d segundos (%.2f s por tarea).\n", durationSeconds, budgetMillis / 1000.0);
+        System.out.println("Modo de ejecucin: " + scheduler.describe(tasks.size()));
+        System.out.println("Kernels SIMD: " + SimdSort.describe());
         System.out.println("-------------------------------------------------------------------------");
 
-        // Iniciamos todos los hilos
-        for (Thread thread : threads) {
-            thread.start();
-        }
-
-        // Nos esperamos a que todos los hilos terminen
-        for (Thread thread : threads) {
-            try {
-                thread.join(); 
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                System.err.println("La ejecucin principal fue interrumpida.");
-            }
+        // El planificador arranca las tareas y regresa cuando todas terminaron
+        GcSample gcBeforeRun = ResourceMeter.sampleGc();
+        try (LiveMetrics metrics = new LiveMetrics(tasks)) {
+            metrics.registerMBeans();
+            System.out.printf("Mtricas en vivo: %d MBeans en %s:type=SortTask%s\n", metrics.getRegisteredCount(),
+                              LiveMetrics.DOMAIN, progressSeconds > 0 ? String.format(", progreso cada %d s", progressSeconds) : "");
+            if (progressSeconds > 0) metrics.startReporter(TimeUnit.SECONDS.toMillis(progressSeconds));
+            scheduler.runAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("La ejecucin principal fue interrumpida.");
         }
 
         long actualEndTimeMillis = System.currentTimeMillis();
+        GcSample gcDuringRun = ResourceMeter.sampleGc().since(gcBeforeRun);
         System.out.println("-------------------------------------------------------------------------");
         System.out.printf("Prueba finalizada! Duracin real: %.2f segundos.\n\n", 
                           (actualEndTimeMillis - startTimeMillis) / 1000.0);
@@ -579,7 +6210,7 @@ public class ConcurrentSortingProject {
         
         
         //  esto es para identificar quien si completo las colecciones y quien es un huevon 
-        int totalCollections = generator.getAllCollections().size(); // 4
+        int totalCollections = registry.size();
         System.out.println("\nAlgoritmos que completaron TODAS las colecciones en el tiempo:");
         
         boolean anyCompletedAll = false;
@@ -597,12 +6228,23 @@ public class ConcurrentSortingProject {
         System.out.println("=========================================================================");
         System.out.println("                      REPORTE COMPARATIVO DE EFICIENCIA                  ");
         System.out.println("=========================================================================");
+        System.out.println("Modo de ejecucin: " + scheduler.describe(tasks.size()));
+        System.out.println("Kernels SIMD: " + SimdSort.describe());
+        
+        System.out.printf("Recoleccin de basura durante la prueba (%s): %d pausas, %d ms (%.1f%% de la duracin).\n",
+                          ResourceMeter.describeCollectors(), gcDuringRun.count, gcDuringRun.millis,
+                          100.0 * gcDuringRun.millis / Math.max(1, actualEndTimeMillis - startTimeMillis));
         
         int rank = 1;
         
-        System.out.printf("| %-4s | %-45s | %-12s | %-16s |\n", 
-                          "RANK", "ALGORITMO Y ESTRUCTURA", "COLECCIONES", "TIEMPO PROMEDIO");
-        System.out.println("|------|-----------------------------------------------|--------------|------------------|");
+        // BYTES/SORT y CPU son del hilo de la tarea; GC % es la parte de su tiempo de pared en pausas
+        String rankFormat = "| %-4s | %-45s | %-12s | %-16s | %12s | %21s | %6s |\n";
+        String rankSeparator = "|------|-----------------------------------------------|--------------|------------------"
+                + "|--------------|-----------------------|--------|";
+        System.out.printf(rankFormat, 
+                          "RANK", "ALGORITMO Y ESTRUCTURA", "COLECCIONES", "TIEMPO PROMEDIO",
+                          "BYTES/SORT", "CPU MS / PARED MS", "GC %");
+        System.out.println(rankSeparator);
 
         for (SortTask task : sortedResults) {
             String avgTime;
@@ -611,14 +6253,125 @@ public class ConcurrentSortingProject {
             } else {
                 avgTime = "N/A";
             }
+            double bytesPerSort = task.getAllocatedBytesPerSort();
+            double wallMillis = task.getTotalExecutionTimeNanos() / 1e6;
+            String cpuVsWall = task.getTotalCpuNanos() < 0
+                    ? String.format("N/A / %.1f", wallMillis)
+                    : String.format("%.1f / %.1f", task.getTotalCpuNanos() / 1e6, wallMillis);
             
-            System.out.printf("| %-4d | %-45s | %-12d | %-16s |\n", 
+            System.out.printf(rankFormat, 
                               rank++, 
                               task.getSortType().uniqueName, 
                               task.getSortedCollectionsCount(), 
-                              avgTime);
+                              avgTime,
+                              bytesPerSort < 0 ? "N/A" : formatBytes(bytesPerSort),
+                              cpuVsWall,
+                              String.format("%.1f", task.getGcShare() * 100));
+        }
+        System.out.println(rankSeparator);
+
+        // Latencias por coleccin (nanoTime): el promedio de arriba mezcla 100 con 100,000 elementos
+        System.out.println("\n LATENCIA POR COLECCIN (ms) Y THROUGHPUT:");
+        String latencyFormat = "| %-48s | %-36s | %7s | %9s | %9s | %9s | %9s | %13s |\n";
+        String latencySeparator = "|--------------------------------------------------|--------------------------------------"
+                + "|---------|-----------|-----------|-----------|-----------|---------------|";
+        System.out.printf(latencyFormat, "ALGORITMO Y ESTRUCTURA", "COLECCIN", "SORTS", "P50", "P90", "P99", "MAX", "ELEM/S");
+        System.out.println(latencySeparator);
+        for (SortTask task : sortedResults) {
+            LatencyHistogram[] latencies = task.getLatencies();
+            List<DataCollection> collections = task.getCollections();
+            for (int i = 0; i < latencies.length; i++) {
+                LatencyHistogram h = latencies[i];
+                if (h.getCount() == 0) continue;
+                double elementsPerSecond = (double) h.getCount() * collections.get(i).size()
+                        / (h.getTotalNanos() / 1e9);
+                System.out.printf(latencyFormat,
+                                  task.getSortType().uniqueName,
+                                  collections.get(i).name,
+                                  h.getCount(),
+                                  String.format("%.3f", h.getValueAtPercentile(50) / 1e6),
+                                  String.format("%.3f", h.getValueAtPercentile(90) / 1e6),
+                                  String.format("%.3f", h.getValueAtPercentile(99) / 1e6),
+                                  String.format("%.3f", h.getMaxNanos() / 1e6),
+                                  String.format("%.3e", elementsPerSecond));
+            }
+        }
+        System.out.println(latencySeparator);
+
+        // Ordenamientos que el lmite de tiempo cort: no cuentan como completados pero se muestra su avance
+        System.out.println("\n ORDENAMIENTOS INTERRUMPIDOS POR EL LMITE DE TIEMPO:");
+        boolean anyInterrupted = false;
+        for (SortTask task : tasks) {
+            if (task.getInterruptedCollection() == null) continue;
+            System.out.printf(" - %s: %s, %.1f%% de las pasadas en %.3f ms\n",
+                              task.getSortType().uniqueName,
+                              task.getInterruptedCollection().name,
+                              task.getInterruptedProgress() * 100,
+                              task.getInterruptedNanos() / 1e6);
+            anyInterrupted = true;
+        }
+        if (!anyInterrupted) {
+            System.out.println(" Ninguno.");
+        }
+
+        // Modo canalizado: throughput de cada etapa y qu tan llenas anduvieron las colas
+        if (scheduler.getMode() == SchedulerMode.PIPELINED) {
+            reportPipeline(sortedResults);
+        }
+
+        // Modo planificado: calibracin y tiempo predicho contra real (incluye tareas que solo muestrearon)
+        if (scheduler.getMode() == SchedulerMode.PLANNED) {
+            reportCostModel(tasks);
+        }
+
+        // AUTO: qu kernel eligi para cada coleccin y cunto le cost decidirlo
+        for (SortTask task : tasks) {
+            AdaptiveSort.Plan[] plans = task.getAutoPlans();
+            boolean header = false;
+            for (int i = 0; i < plans.length; i++) {
+                if (plans[i] == null) continue;
+                if (!header) {
+                    System.out.printf("\n ELECCIN DE KERNEL DE %s:\n", task.getSortType().uniqueName);
+                    header = true;
+                }
+                System.out.printf("  - %-40s -> %-30s (muestreo %.1f us)\n",
+                                  task.getCollections().get(i).name,
+                                  plans[i].kernel.getDisplayName(),
+                                  plans[i].samplingNanos / 1e3);
+            }
+        }
+
+        // El merge sort externo pasa por disco: se reporta su E/S y el fan-in de la mezcla
+        for (SortTask task : tasks) {
+            ExternalSorter.Stats stats = task.getExternalStats();
+            if (stats == null) continue;
+            System.out.printf("\n ORDENAMIENTO EXTERNO (%s, ltima coleccin):\n  %s\n",
+                              task.getSortType().uniqueName, stats);
+        }
+        if (batchCount > 0 && batchLength > 0) {
+            reportBatchMode(new DataGenerator(seed).generateBatch(batchCount, batchLength, 10000));
+        }
+        if (registry.isFromSnapshots()) {
+            reportSnapshots(registry);
+        } else if (reloaded != null) {
+            reportSnapshots(reloaded);
+        }
+        if (sampleSortMax > 0) {
+            reportSampleSort(registry.getCollections(), sampleSortMax);
         }
-        System.out.println("|------|-----------------------------------------------|--------------|------------------|");
+        if (selectionMax > 0) {
+            reportSelection(registry.getCollections(), selectionMax);
+        }
+        if (keySortMax > 0) {
+            reportKeySort(registry.getCollections(), keySortMax);
+        }
+        if (streamBatches > 0) {
+            reportStreaming(registry.getCollections(), streamBatches);
+        }
+        if (distributedWorkers > 0) {
+            reportDistributed(registry.getCollections(), distributedWorkers);
+        }
+
     //8. Conclusiones y Anlisis
         // Conclusiones y Comparacin
         if (!sortedResults.isEmpty()) {
@@ -635,8 +6388,24 @@ public class ConcurrentSortingProject {
             System.out.println("    La tabla superior permite la comparacin directa. En general:");
             System.out.println("    - Se espera que las versiones con ARRAY sean ms rpidas debido a la eficiencia");
             System.out.println("      del acceso directo a memoria (O(1)) sobre List.get()/List.set().");
+            System.out.println("    - INT_LIST usa la misma interfaz de lista pero guarda int primitivos, asi que");
+            System.out.println("      su diferencia contra ARRAY_LIST es el costo del boxing de Integer.");
             System.out.println("    - El impacto de esta diferencia ser mayor en los algoritmos O(n) que realizan");
             System.out.println("      muchas ms operaciones de lectura/escritura.");
+            // lo medido: bytes reservados por ordenamiento, promediando las tareas de cada estructura
+            for (DataStructure structure : DataStructure.values()) {
+                double bytes = 0;
+                int measured = 0;
+                for (SortTask task : sortedResults) {
+                    if (task.getSortType().structure != structure || task.getAllocatedBytesPerSort() < 0) continue;
+                    bytes += task.getAllocatedBytesPerSort();
+                    measured++;
+                }
+                if (measured > 0) {
+                    System.out.printf("    - Medido: %s reserv en promedio %s por ordenamiento (%d tareas).\n",
+                                      structure.name(), formatBytes(bytes / measured), measured);
+                }
+            }
             
         } else {
             System.out.println("\n No se registraron colecciones ordenadas por ninguna tarea en el tiempo especificado.");
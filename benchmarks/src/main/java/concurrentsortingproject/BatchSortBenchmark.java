@@ -0,0 +1,94 @@
+package concurrentsortingproject;
+
+import concurrentsortingproject.ConcurrentSortingProject.BatchCollection;
+import concurrentsortingproject.ConcurrentSortingProject.DataGenerator;
+import concurrentsortingproject.ConcurrentSortingProject.DataStructure;
+import concurrentsortingproject.ConcurrentSortingProject.SortAlgorithm;
+import concurrentsortingproject.ConcurrentSortingProject.SortTask;
+import concurrentsortingproject.ConcurrentSortingProject.SortType;
+import concurrentsortingproject.ConcurrentSortingProject.SortingNetworks;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Modo por lotes: arreglos por segundo de las redes de ordenamiento (secuencial y repartido entre
+ * núcleos) contra los kernels de ARRAY aplicados arreglo por arreglo. Cada operación es un arreglo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules=jdk.incubator.vector"})
+public class BatchSortBenchmark {
+
+    static final int BATCH_COUNT = 10_000;
+
+    @State(Scope.Thread)
+    public static class Batch {
+        @Param({"16", "32", "100"})
+        public int length;
+
+        private BatchCollection source;
+        int[][] arrays;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            source = new DataGenerator().generateBatch(BATCH_COUNT, length, 10000);
+        }
+
+        @Setup(Level.Invocation)
+        public void copy() {
+            arrays = source.copyInto(arrays);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerArrayKernel {
+        // EXTERNAL_MERGE_SORT queda fuera: crearía un archivo temporal por arreglo
+        @Param({"BUBBLE_SORT", "SELECTION_SORT", "INSERTION_SORT", "MERGE_SORT", "QUICK_SORT",
+                "COUNTING_SORT", "RADIX_SORT", "SIMD_QUICK_SORT", "SIMD_MERGE_SORT", "AUTO"})
+        public SortAlgorithm algorithm;
+
+        SortTask task;
+
+        @Setup(Level.Trial)
+        public void create() {
+            task = new SortTask(new SortType(algorithm, DataStructure.ARRAY), 0, null);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_COUNT)
+    public int[][] networkSequential(Batch batch) {
+        SortingNetworks.sortAllSequential(batch.arrays);
+        return batch.arrays;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_COUNT)
+    public int[][] networkParallel(Batch batch) {
+        SortingNetworks.sortAll(batch.arrays);
+        return batch.arrays;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_COUNT)
+    public int[][] perArray(Batch batch, PerArrayKernel kernel) {
+        for (int[] array : batch.arrays) {
+            kernel.task.sortCopy(array);
+        }
+        return batch.arrays;
+    }
+}
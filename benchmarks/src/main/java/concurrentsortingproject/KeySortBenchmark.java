@@ -0,0 +1,76 @@
+package concurrentsortingproject;
+
+import concurrentsortingproject.ConcurrentSortingProject.DataGenerator;
+import concurrentsortingproject.ConcurrentSortingProject.KeySort;
+import concurrentsortingproject.ConcurrentSortingProject.KeyedRecord;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Registros ordenados por clave primitiva (KeySort: claves a long[] + índices, radix y una pasada
+ * de permutación) contra List.sort(Comparator), con registros hechos de las colecciones del
+ * DataGenerator. Ambos son estables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules=jdk.incubator.vector"})
+@State(Scope.Thread)
+public class KeySortBenchmark {
+
+    public enum Key { TIMESTAMP, SCORE }
+
+    private static final Comparator<KeyedRecord> BY_TIMESTAMP = Comparator.comparingLong(r -> r.timestamp);
+    private static final Comparator<KeyedRecord> BY_SCORE = Comparator.comparingDouble(r -> r.score);
+
+    @Param
+    public SortBenchmark.Collection collection;
+
+    @Param
+    public Key key;
+
+    private List<KeyedRecord> source;
+    private List<KeyedRecord> records;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        source = KeyedRecord.fromCollection(collection.generate(new DataGenerator()));
+        records = new ArrayList<>(source);
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        for (int i = 0; i < source.size(); i++) records.set(i, source.get(i));
+    }
+
+    @Benchmark
+    public List<KeyedRecord> comparatorSort() {
+        records.sort(key == Key.TIMESTAMP ? BY_TIMESTAMP : BY_SCORE);
+        return records;
+    }
+
+    @Benchmark
+    public List<KeyedRecord> keySort() {
+        if (key == Key.TIMESTAMP) {
+            KeySort.sortByLong(records, r -> r.timestamp);
+        } else {
+            KeySort.sortByDouble(records, r -> r.score);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,106 @@
+package concurrentsortingproject;
+
+import concurrentsortingproject.ConcurrentSortingProject.CancellationToken;
+import concurrentsortingproject.ConcurrentSortingProject.DataCollection;
+import concurrentsortingproject.ConcurrentSortingProject.DataGenerator;
+import concurrentsortingproject.ConcurrentSortingProject.DataSpec;
+import concurrentsortingproject.ConcurrentSortingProject.DataStructure;
+import concurrentsortingproject.ConcurrentSortingProject.Distribution;
+import concurrentsortingproject.ConcurrentSortingProject.SampleSort;
+import concurrentsortingproject.ConcurrentSortingProject.SortAlgorithm;
+import concurrentsortingproject.ConcurrentSortingProject.SortTask;
+import concurrentsortingproject.ConcurrentSortingProject.SortType;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Escalamiento del sample sort sobre un solo arreglo grande: el mismo arreglo con 1 a 16 hilos,
+ * contra Arrays.parallelSort (pool común, todos los núcleos) y contra MERGE_SORT secuencial.
+ * El speedup es el cociente de los promedios; los hilos de más que núcleos no aportan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules=jdk.incubator.vector"})
+public class SampleSortBenchmark {
+
+    @State(Scope.Thread)
+    public static class Input {
+        @Param({"1000000", "10000000"})
+        public int size;
+
+        private DataCollection source;
+        int[] array;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            source = new DataGenerator().generate(new DataSpec(Distribution.UNIFORM, size, Integer.MAX_VALUE));
+        }
+
+        @Setup(Level.Invocation)
+        public void copy() {
+            array = source.copyInto(array);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Pool {
+        @Param({"1", "2", "4", "8", "16"})
+        public int threads;
+
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void create() {
+            pool = new ForkJoinPool(threads);
+        }
+
+        @TearDown(Level.Trial)
+        public void shutdown() {
+            pool.shutdown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MergeSortTask {
+        SortTask task;
+
+        @Setup(Level.Trial)
+        public void create() {
+            task = new SortTask(new SortType(SortAlgorithm.MERGE_SORT, DataStructure.ARRAY), 0, null);
+        }
+    }
+
+    @Benchmark
+    public int[] sampleSort(Input input, Pool pool) {
+        SampleSort.sort(input.array, 0, input.array.length, pool.pool, CancellationToken.NONE);
+        return input.array;
+    }
+
+    @Benchmark
+    public int[] arraysParallelSort(Input input) {
+        Arrays.parallelSort(input.array);
+        return input.array;
+    }
+
+    @Benchmark
+    public int[] mergeSort(Input input, MergeSortTask mergeSort) {
+        mergeSort.task.sortCopy(input.array);
+        return input.array;
+    }
+}
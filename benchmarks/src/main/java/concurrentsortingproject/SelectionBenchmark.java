@@ -0,0 +1,80 @@
+package concurrentsortingproject;
+
+import concurrentsortingproject.ConcurrentSortingProject.DataCollection;
+import concurrentsortingproject.ConcurrentSortingProject.DataGenerator;
+import concurrentsortingproject.ConcurrentSortingProject.DataSpec;
+import concurrentsortingproject.ConcurrentSortingProject.Distribution;
+import concurrentsortingproject.ConcurrentSortingProject.IntroSort;
+import concurrentsortingproject.ConcurrentSortingProject.Selection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Selección contra ordenamiento completo sobre cada distribución del generador: la mediana, tres
+ * percentiles en una pasada y los 100 menores, contra IntroSort sobre el mismo arreglo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules=jdk.incubator.vector"})
+public class SelectionBenchmark {
+
+    static final double[] PERCENTILES = {50, 90, 99};
+    static final int K = 100;
+
+    @State(Scope.Thread)
+    public static class Input {
+        @Param({"100000", "1000000"})
+        public int size;
+
+        @Param({"UNIFORM", "SORTED", "REVERSED", "NEARLY_SORTED", "ORGAN_PIPE", "ZIPF"})
+        public Distribution distribution;
+
+        private DataCollection source;
+        int[] array;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            source = new DataGenerator().generate(new DataSpec(distribution, size, 100000));
+        }
+
+        @Setup(Level.Invocation)
+        public void copy() {
+            array = source.copyInto(array);
+        }
+    }
+
+    @Benchmark
+    public int median(Input input) {
+        return Selection.select(input.array, input.array.length / 2);
+    }
+
+    @Benchmark
+    public int[] percentiles(Input input) {
+        return Selection.percentiles(input.array, PERCENTILES);
+    }
+
+    @Benchmark
+    public int[] partialSort(Input input) {
+        Selection.partialSort(input.array, 0, input.array.length, K);
+        return input.array;
+    }
+
+    @Benchmark
+    public int[] fullSort(Input input) {
+        IntroSort.sort(input.array);
+        return input.array;
+    }
+}
@@ -0,0 +1,119 @@
+package concurrentsortingproject;
+
+import concurrentsortingproject.ConcurrentSortingProject.DataCollection;
+import concurrentsortingproject.ConcurrentSortingProject.DataGenerator;
+import concurrentsortingproject.ConcurrentSortingProject.DataSpec;
+import concurrentsortingproject.ConcurrentSortingProject.DatasetRegistry;
+import concurrentsortingproject.ConcurrentSortingProject.DataStructure;
+import concurrentsortingproject.ConcurrentSortingProject.SortAlgorithm;
+import concurrentsortingproject.ConcurrentSortingProject.SortTask;
+import concurrentsortingproject.ConcurrentSortingProject.SortType;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark JMH de cada combinación SortAlgorithm x DataStructure x colección del DataGenerator.
+ * La copia se hace en @Setup(Level.Invocation) para que no entre en la medición; en la colección
+ * de 100 elementos (microsegundos por ordenamiento) eso agrega algo de ruido propio de JMH.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules=jdk.incubator.vector"})
+@State(Scope.Thread)
+public class SortBenchmark {
+
+    public enum Collection {
+        RANDOM_100, RANDOM_50K, RANDOM_100K, RESTRICTED_100K;
+
+        DataCollection generate(DataGenerator generator) {
+            switch (this) {
+                case RANDOM_100: return generator.generate100Random();
+                case RANDOM_50K: return generator.generate50kRandom();
+                case RANDOM_100K: return generator.generate100kRandom();
+                default: return generator.generate100kRestricted();
+            }
+        }
+
+        // la instantánea (de --guardar-datos) con el mismo nombre que la colección por defecto
+        DataCollection load(Path dir) throws IOException {
+            String name = DataSpec.defaults().get(ordinal()).getName();
+            for (DataCollection candidate : DatasetRegistry.fromSnapshots(dir).getCollections()) {
+                if (candidate.name.equals(name)) return candidate;
+            }
+            throw new IOException("No hay instantánea de \"" + name + "\" en " + dir);
+        }
+    }
+
+    @Param
+    public SortAlgorithm algorithm;
+
+    @Param
+    public DataStructure structure;
+
+    @Param
+    public Collection collection;
+
+    // -p snapshots=dir toma los datos de un directorio de instantáneas en lugar de generarlos
+    @Param({""})
+    public String snapshots;
+
+    private SortTask task;
+    private DataCollection source;
+    private Object copy;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        task = new SortTask(new SortType(algorithm, structure), 0, null);
+        source = snapshots.isEmpty() ? collection.generate(new DataGenerator()) : collection.load(Paths.get(snapshots));
+    }
+
+    // reutiliza el mismo buffer, así gc.alloc.rate.norm mide solo lo que reserva el algoritmo
+    @Setup(Level.Invocation)
+    public void copy() {
+        copy = task.prepareCopy(source, copy);
+    }
+
+    @Benchmark
+    public Object sort() {
+        task.sortCopy(copy);
+        return copy;
+    }
+
+    // Corre con el perfilador de asignación (equivalente a -prof gc) para ver bytes por operación.
+    // Acepta las mismas opciones de línea de comandos que JMH, p. ej. -p algorithm=RADIX_SORT.
+    // Sin un patrón de benchmarks corre SortBenchmark y BatchSortBenchmark; el patrón va anclado a los
+    // puntos del nombre completo para no arrastrar SampleSortBenchmark ni KeySortBenchmark.
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine).addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include("\\.(Batch)?SortBenchmark\\.");
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}